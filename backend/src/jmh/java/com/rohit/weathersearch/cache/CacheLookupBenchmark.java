@@ -0,0 +1,124 @@
+package com.rohit.weathersearch.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU cost of finding a city in the weather cache.
+ *
+ * Key derivation compares the SpEL key #cityName.toLowerCase().trim(), as an
+ * {@code @Cacheable} annotation would evaluate it (interpreted, and with the
+ * SpEL compiler), against a plain KeyGenerator. The hit path measures the
+ * lookups the service does on a cached city.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheLookupBenchmark {
+
+    private static final String KEY_EXPRESSION = "#cityName.toLowerCase().trim()";
+    private static final String[] CITIES = {
+            "London", "Paris ", "new york", "TOKYO", "Berlin", "Madrid", " Rome", "Lisbon",
+            "Oslo", "Vienna", "Prague", "Dublin", "Zurich", "Athens", "Cairo", "Lima"
+    };
+
+    private Expression interpretedKey;
+    private Expression compiledKey;
+    private KeyGenerator keyGenerator;
+    private Method lookupMethod;
+    private AsyncLoadingCache<String, CompactWeather> cache;
+    private int next;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        interpretedKey = new SpelExpressionParser().parseExpression(KEY_EXPRESSION);
+        compiledKey = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null))
+                .parseExpression(KEY_EXPRESSION);
+        keyGenerator = (target, method, params) -> ((String) params[0]).toLowerCase().trim();
+        lookupMethod = String.class.getMethod("valueOf", Object.class);
+
+        // Built like the service's weather cache
+        cache = Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfter(new WeatherExpiry(true, Duration.ofMinutes(10), Duration.ofMinutes(10),
+                        Duration.ofSeconds(60), Duration.ofSeconds(60), Duration.ofMinutes(30), 1.5, 0.5))
+                .recordStats()
+                .buildAsync((key, executor) -> CompletableFuture.failedFuture(new IllegalStateException("miss")));
+        for (String city : CITIES) {
+            WeatherResponse response = new WeatherResponse();
+            response.setCityName(city.trim());
+            response.setTemperature(15.5);
+            cache.put(city.toLowerCase().trim(), CompletableFuture.completedFuture(
+                    CompactWeather.from(response, System.currentTimeMillis())));
+        }
+    }
+
+    private String nextCity() {
+        next = (next + 1) & (CITIES.length - 1);
+        return CITIES[next];
+    }
+
+    /**
+     * A fresh evaluation context per call, as the cache interceptor creates one per invocation.
+     */
+    @Benchmark
+    public Object spelKeyInterpreted() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("cityName", nextCity());
+        return interpretedKey.getValue(context);
+    }
+
+    @Benchmark
+    public Object spelKeyCompiled() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("cityName", nextCity());
+        return compiledKey.getValue(context);
+    }
+
+    @Benchmark
+    public Object keyGenerator() {
+        return keyGenerator.generate(this, lookupMethod, nextCity());
+    }
+
+    /**
+     * The service's lookup: get with a mapping function that is not called on a hit.
+     */
+    @Benchmark
+    public CompactWeather cacheHit() {
+        return cache.get(nextCity().toLowerCase().trim(),
+                (key, executor) -> CompletableFuture.failedFuture(new IllegalStateException("miss"))).join();
+    }
+
+    /**
+     * The batch endpoint's lookup.
+     */
+    @Benchmark
+    public CompactWeather cacheHitIfPresent() {
+        return cache.getIfPresent(nextCity().toLowerCase().trim()).join();
+    }
+}
@@ -0,0 +1,92 @@
+package com.rohit.weathersearch.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an L2 hit (mapped file read plus JSON decode) next to a call to a
+ * local stub upstream that answers immediately, the best case for a real API
+ * call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class L2CacheReadBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Path directory;
+    private MappedFileCache cache;
+    private StubWeatherServer stub;
+    private HttpClient httpClient;
+    private HttpRequest upstreamRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Spring's defaults
+        directory = Files.createTempDirectory("l2-benchmark");
+        cache = new MappedFileCache(directory.resolve("l2.dat"), 1024 * 1024,
+                Duration.ofHours(1), Duration.ofHours(1));
+        cache.put("paris", objectMapper.writeValueAsBytes(sampleResponse()), System.currentTimeMillis());
+
+        stub = new StubWeatherServer();
+        httpClient = HttpClient.newHttpClient();
+        upstreamRequest = HttpRequest.newBuilder(URI.create(stub.url() + "?q=Paris")).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cache.close();
+        stub.close();
+        Files.deleteIfExists(directory.resolve("l2.dat"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public WeatherResponse l2Hit() throws IOException {
+        return objectMapper.readValue(cache.get("paris").value(), WeatherResponse.class);
+    }
+
+    @Benchmark
+    public byte[] localUpstreamCall() throws IOException, InterruptedException {
+        return httpClient.send(upstreamRequest, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private static WeatherResponse sampleResponse() {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName("Paris");
+        response.setCountry("FR");
+        response.setTemperature(18.5);
+        response.setHumidity(60);
+        response.setWeatherDescription("clear sky");
+        response.setTimestamp(LocalDateTime.now());
+        response.setFromCache(false);
+        return response;
+    }
+}
@@ -0,0 +1,124 @@
+package com.rohit.weathersearch.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.model.external.OpenWeatherMapResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU cost of turning an OpenWeatherMap payload into the JSON
+ * we serve: decoding the upstream body into a WeatherResponse and encoding
+ * that for the client.
+ *
+ * Decoding compares the streaming WeatherResponseDecoder with binding to
+ * OpenWeatherMapResponse and copying it over, the path it replaced. Run with
+ * -prof gc (the default jmh.args) for bytes allocated per miss
+ * (gc.alloc.rate.norm).
+ *
+ * The payload is the stub server's canned London response. The ObjectMapper
+ * is configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponsePipelineBenchmark {
+
+    private ObjectMapper objectMapper;
+    private byte[] upstreamPayload;
+    private OpenWeatherMapResponse apiResponse;
+    private WeatherResponse weatherResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        try (InputStream in = getClass().getResourceAsStream("/stub/current-weather.json")) {
+            upstreamPayload = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("{{name}}", "London")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        apiResponse = objectMapper.readValue(upstreamPayload, OpenWeatherMapResponse.class);
+        weatherResponse = WeatherResponseDecoder.decode(new ByteArrayInputStream(upstreamPayload));
+    }
+
+    @Benchmark
+    public WeatherResponse bindThenConvert() throws IOException {
+        return convert(objectMapper.readValue(upstreamPayload, OpenWeatherMapResponse.class));
+    }
+
+    @Benchmark
+    public WeatherResponse convertOnly() {
+        return convert(apiResponse);
+    }
+
+    @Benchmark
+    public WeatherResponse streamingDecode() throws IOException {
+        return WeatherResponseDecoder.decode(new ByteArrayInputStream(upstreamPayload));
+    }
+
+    @Benchmark
+    public byte[] serializeWeatherResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(weatherResponse);
+    }
+
+    /**
+     * The field-by-field copy the service did before the streaming decoder.
+     */
+    private static WeatherResponse convert(OpenWeatherMapResponse apiResponse) {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName(apiResponse.getName());
+        response.setCountry(apiResponse.getSys() != null ? apiResponse.getSys().getCountry() : null);
+        if (apiResponse.getMain() != null) {
+            response.setTemperature(apiResponse.getMain().getTemp());
+            response.setFeelsLike(apiResponse.getMain().getFeelsLike());
+            response.setTempMin(apiResponse.getMain().getTempMin());
+            response.setTempMax(apiResponse.getMain().getTempMax());
+            response.setHumidity(apiResponse.getMain().getHumidity());
+            response.setPressure(apiResponse.getMain().getPressure());
+        }
+        if (apiResponse.getWeather() != null && !apiResponse.getWeather().isEmpty()) {
+            response.setWeatherMain(apiResponse.getWeather().get(0).getMain());
+            response.setWeatherDescription(apiResponse.getWeather().get(0).getDescription());
+            response.setWeatherIcon(apiResponse.getWeather().get(0).getIcon());
+        }
+        if (apiResponse.getWind() != null) {
+            response.setWindSpeed(apiResponse.getWind().getSpeed());
+            response.setWindDegree(apiResponse.getWind().getDeg());
+        }
+        if (apiResponse.getClouds() != null) {
+            response.setCloudiness(apiResponse.getClouds().getAll());
+        }
+        response.setVisibility(apiResponse.getVisibility());
+        response.setObservedAt(apiResponse.getDt()); // so both pipelines produce the same fields
+        if (apiResponse.getSys() != null) {
+            response.setSunrise(apiResponse.getSys().getSunrise());
+            response.setSunset(apiResponse.getSys().getSunset());
+        }
+        if (apiResponse.getCoord() != null) {
+            response.setLatitude(apiResponse.getCoord().getLat());
+            response.setLongitude(apiResponse.getCoord().getLon());
+        }
+        response.setTimestamp(LocalDateTime.now());
+        response.setFromCache(false);
+        return response;
+    }
+}
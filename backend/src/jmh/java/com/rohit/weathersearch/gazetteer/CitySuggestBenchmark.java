@@ -0,0 +1,47 @@
+package com.rohit.weathersearch.gazetteer;
+
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one autocomplete query against the bundled gazetteer: a short,
+ * ambiguous prefix, a longer one, and a typo that falls back to fuzzy
+ * matching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CitySuggestBenchmark {
+
+    @Param({"l", "lon", "londn"})
+    public String query;
+
+    private CityGazetteer gazetteer;
+
+    @Setup
+    public void setUp() {
+        gazetteer = new CityGazetteer(new ClassPathResource("gazetteer/cities.tsv"));
+    }
+
+    @Benchmark
+    public List<CitySuggestion> suggest() {
+        return gazetteer.suggest(query, 10);
+    }
+}
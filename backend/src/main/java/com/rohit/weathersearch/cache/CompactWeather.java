@@ -0,0 +1,313 @@
+package com.rohit.weathersearch.cache;
+
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, immutable cache form of a WeatherResponse.
+ *
+ * Numbers are stored as primitive fields, with a bit mask marking the ones
+ * that were null, instead of one boxed object each. The timestamp is packed
+ * into a single long. Strings drawn from a small vocabulary (country, weather
+ * condition, description, icon) are interned, so every entry shares one
+ * instance of each. A fresh WeatherResponse is materialized on every read,
+ * so callers can never modify the cached value.
+ *
+ * Each entry records when its data was fetched from the API and, once
+ * cached, when it expires; these drive the HTTP Age and Cache-Control headers. Optionally the entry also carries
+ * the response pre-encoded as JSON (as served on a cache hit) with its
+ * entity tag, trading heap for not re-serializing on every hit.
+ *
+ * A stale copy marks data served past its TTL because the API is failing;
+ * it is always reported as coming from the cache.
+ */
+public final class CompactWeather {
+
+    // Shallow size of an instance on a 64-bit JVM with compressed references:
+    // 12-byte header, 7 references, 13 primitives of 8 bytes, 5 ints, a short and a boolean
+    private static final int SHALLOW_BYTES = 168;
+    private static final int STRING_BYTES = 24; // String object, without its byte array
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    // Caps the interned vocabulary in case an upstream field turns out to be free text
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+    private static final Map<String, String> DICTIONARY = new ConcurrentHashMap<>();
+
+    // Bits of nullMask, one per nullable numeric field
+    private static final int TEMPERATURE = 1;
+    private static final int FEELS_LIKE = 1 << 1;
+    private static final int TEMP_MIN = 1 << 2;
+    private static final int TEMP_MAX = 1 << 3;
+    private static final int HUMIDITY = 1 << 4;
+    private static final int PRESSURE = 1 << 5;
+    private static final int WIND_SPEED = 1 << 6;
+    private static final int WIND_DEGREE = 1 << 7;
+    private static final int CLOUDINESS = 1 << 8;
+    private static final int VISIBILITY = 1 << 9;
+    private static final int SUNRISE = 1 << 10;
+    private static final int SUNSET = 1 << 11;
+    private static final int LATITUDE = 1 << 12;
+    private static final int LONGITUDE = 1 << 13;
+    private static final int TIMESTAMP = 1 << 14;
+    private static final int OBSERVED_AT = 1 << 15;
+
+    private final String cityName;
+    private final String country;
+    private final String weatherMain;
+    private final String weatherDescription;
+    private final String weatherIcon;
+
+    private final double temperature;
+    private final double feelsLike;
+    private final double tempMin;
+    private final double tempMax;
+    private final double windSpeed;
+    private final double latitude;
+    private final double longitude;
+    private final long sunrise;
+    private final long sunset;
+    private final long observedAt;
+    private final long timestampNanos; // UTC epoch nanos of the LocalDateTime, valid until 2262
+    private final int humidity;
+    private final int pressure;
+    private final int windDegree;
+    private final int cloudiness;
+    private final int visibility;
+    private final short nullMask;
+
+    private final long fetchedAtMillis;
+    private final long expiresAtMillis; // -1 if not decided when packed
+    private final byte[] json; // null unless pre-encoded
+    private final String etag;
+    private final boolean stale;
+
+    private CompactWeather(WeatherResponse response, long fetchedAtMillis, long expiresAtMillis, byte[] json,
+                           String etag, boolean stale) {
+        int nulls = 0;
+
+        cityName = response.getCityName();
+        country = intern(response.getCountry());
+        weatherMain = intern(response.getWeatherMain());
+        weatherDescription = intern(response.getWeatherDescription());
+        weatherIcon = intern(response.getWeatherIcon());
+
+        temperature = response.getTemperature() != null ? response.getTemperature() : 0;
+        nulls |= response.getTemperature() == null ? TEMPERATURE : 0;
+        feelsLike = response.getFeelsLike() != null ? response.getFeelsLike() : 0;
+        nulls |= response.getFeelsLike() == null ? FEELS_LIKE : 0;
+        tempMin = response.getTempMin() != null ? response.getTempMin() : 0;
+        nulls |= response.getTempMin() == null ? TEMP_MIN : 0;
+        tempMax = response.getTempMax() != null ? response.getTempMax() : 0;
+        nulls |= response.getTempMax() == null ? TEMP_MAX : 0;
+        humidity = response.getHumidity() != null ? response.getHumidity() : 0;
+        nulls |= response.getHumidity() == null ? HUMIDITY : 0;
+        pressure = response.getPressure() != null ? response.getPressure() : 0;
+        nulls |= response.getPressure() == null ? PRESSURE : 0;
+        windSpeed = response.getWindSpeed() != null ? response.getWindSpeed() : 0;
+        nulls |= response.getWindSpeed() == null ? WIND_SPEED : 0;
+        windDegree = response.getWindDegree() != null ? response.getWindDegree() : 0;
+        nulls |= response.getWindDegree() == null ? WIND_DEGREE : 0;
+        cloudiness = response.getCloudiness() != null ? response.getCloudiness() : 0;
+        nulls |= response.getCloudiness() == null ? CLOUDINESS : 0;
+        visibility = response.getVisibility() != null ? response.getVisibility() : 0;
+        nulls |= response.getVisibility() == null ? VISIBILITY : 0;
+        sunrise = response.getSunrise() != null ? response.getSunrise() : 0;
+        nulls |= response.getSunrise() == null ? SUNRISE : 0;
+        sunset = response.getSunset() != null ? response.getSunset() : 0;
+        nulls |= response.getSunset() == null ? SUNSET : 0;
+        latitude = response.getLatitude() != null ? response.getLatitude() : 0;
+        nulls |= response.getLatitude() == null ? LATITUDE : 0;
+        longitude = response.getLongitude() != null ? response.getLongitude() : 0;
+        nulls |= response.getLongitude() == null ? LONGITUDE : 0;
+        observedAt = response.getObservedAt() != null ? response.getObservedAt() : 0;
+        nulls |= response.getObservedAt() == null ? OBSERVED_AT : 0;
+        timestampNanos = response.getTimestamp() != null ? toEpochNanos(response.getTimestamp()) : 0;
+        nulls |= response.getTimestamp() == null ? TIMESTAMP : 0;
+
+        nullMask = (short) nulls;
+        this.fetchedAtMillis = fetchedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.json = json;
+        this.etag = etag;
+        this.stale = stale;
+    }
+
+    /**
+     * Packs a response fetched at the given time for caching.
+     * The response's fromCache flag is not kept.
+     */
+    public static CompactWeather from(WeatherResponse response, long fetchedAtMillis) {
+        return new CompactWeather(response, fetchedAtMillis, -1, null, null, false);
+    }
+
+    /**
+     * Packs a response for caching together with its cache-hit JSON encoding and entity tag.
+     */
+    public static CompactWeather from(WeatherResponse response, long fetchedAtMillis, byte[] json, String etag) {
+        return new CompactWeather(response, fetchedAtMillis, -1, json, etag, false);
+    }
+
+    /**
+     * Packs a response for caching with the deadline it was given when cached,
+     * and optionally its cache-hit JSON encoding and entity tag (both null if not).
+     */
+    public static CompactWeather from(WeatherResponse response, long fetchedAtMillis, long expiresAtMillis,
+                                      byte[] json, String etag) {
+        return new CompactWeather(response, fetchedAtMillis, expiresAtMillis, json, etag, false);
+    }
+
+    /**
+     * Copies an entry to be served as stale. The copy keeps the original fetch
+     * time but not the pre-encoded JSON, whose body says the data is fresh.
+     */
+    public static CompactWeather stale(CompactWeather weather) {
+        return new CompactWeather(weather.toResponse(true), weather.fetchedAtMillis, -1, null, null, true);
+    }
+
+    /**
+     * When the data was fetched from the API, in epoch millis.
+     */
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+
+    /**
+     * When the entry stops being fresh, in epoch millis, as decided when it
+     * was cached; -1 if it was packed without a deadline.
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * When the API took the reading, in epoch millis, or -1 if it did not say.
+     */
+    public long getObservedAtMillis() {
+        return isNull(OBSERVED_AT) ? -1 : observedAt * 1000;
+    }
+
+    /**
+     * Primary weather condition, e.g. "Clear" or "Thunderstorm"; may be null.
+     */
+    public String getWeatherMain() {
+        return weatherMain;
+    }
+
+    /**
+     * Wind speed in m/s, or NaN if unknown.
+     */
+    public double getWindSpeed() {
+        return isNull(WIND_SPEED) ? Double.NaN : windSpeed;
+    }
+
+    /**
+     * The pre-encoded JSON body, or null if the entry was cached without it.
+     * Shared by all readers; must not be modified.
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Estimated heap retained by this entry, in bytes: the object itself, its
+     * city name, and the pre-encoded JSON and ETag if any. Interned strings
+     * are shared by all entries and not counted.
+     */
+    public int estimatedBytes() {
+        return SHALLOW_BYTES + stringBytes(cityName) + stringBytes(etag)
+                + (json != null ? arrayBytes(json.length) : 0);
+    }
+
+    /**
+     * Estimated heap retained by a cache entry, key included; the weigher of
+     * caches bounded by weight.
+     */
+    public static int estimatedEntryBytes(String key, CompactWeather weather) {
+        return stringBytes(key) + weather.estimatedBytes();
+    }
+
+    /**
+     * Materializes a new response with the cached values.
+     * A stale entry always reports fromCache true.
+     */
+    public WeatherResponse toResponse(boolean fromCache) {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName(cityName);
+        response.setCountry(country);
+        response.setWeatherMain(weatherMain);
+        response.setWeatherDescription(weatherDescription);
+        response.setWeatherIcon(weatherIcon);
+
+        response.setTemperature(isNull(TEMPERATURE) ? null : temperature);
+        response.setFeelsLike(isNull(FEELS_LIKE) ? null : feelsLike);
+        response.setTempMin(isNull(TEMP_MIN) ? null : tempMin);
+        response.setTempMax(isNull(TEMP_MAX) ? null : tempMax);
+        response.setHumidity(isNull(HUMIDITY) ? null : humidity);
+        response.setPressure(isNull(PRESSURE) ? null : pressure);
+        response.setWindSpeed(isNull(WIND_SPEED) ? null : windSpeed);
+        response.setWindDegree(isNull(WIND_DEGREE) ? null : windDegree);
+        response.setCloudiness(isNull(CLOUDINESS) ? null : cloudiness);
+        response.setVisibility(isNull(VISIBILITY) ? null : visibility);
+        response.setSunrise(isNull(SUNRISE) ? null : sunrise);
+        response.setSunset(isNull(SUNSET) ? null : sunset);
+        response.setLatitude(isNull(LATITUDE) ? null : latitude);
+        response.setLongitude(isNull(LONGITUDE) ? null : longitude);
+        response.setObservedAt(isNull(OBSERVED_AT) ? null : observedAt);
+        response.setTimestamp(isNull(TIMESTAMP) ? null : fromEpochNanos(timestampNanos));
+
+        response.setFromCache(fromCache || stale);
+        response.setStale(stale);
+        return response;
+    }
+
+    private boolean isNull(int field) {
+        return (nullMask & field) != 0;
+    }
+
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = DICTIONARY.get(value);
+        if (interned != null) {
+            return interned;
+        }
+        if (DICTIONARY.size() >= MAX_DICTIONARY_SIZE) {
+            return value;
+        }
+        interned = DICTIONARY.putIfAbsent(value, value);
+        return interned != null ? interned : value;
+    }
+
+    private static int stringBytes(String value) {
+        // Latin-1 strings take a byte per character; others would take two
+        return value != null ? STRING_BYTES + arrayBytes(value.length()) : 0;
+    }
+
+    private static int arrayBytes(int length) {
+        return (ARRAY_HEADER_BYTES + length + 7) & ~7;
+    }
+
+    private static long toEpochNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L),
+                ZoneOffset.UTC);
+    }
+}
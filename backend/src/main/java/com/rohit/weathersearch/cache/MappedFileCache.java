@@ -0,0 +1,313 @@
+package com.rohit.weathersearch.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent key/value cache in an append-only, memory-mapped file.
+ *
+ * Each put appends a record; an in-memory index maps every key to its latest
+ * record and is rebuilt by scanning the file on startup, so entries survive a
+ * restart. Entries older than maxAge are treated as absent. A background task
+ * periodically rewrites the file with only live, latest records (compaction),
+ * once superseded and expired records make up a quarter of the used bytes.
+ *
+ * Record layout: [int length][long writtenAtMillis][short keyLength][key][value],
+ * where length covers everything after the length field. The length is written
+ * last, so a record torn by a crash ends the scan instead of being read.
+ */
+public class MappedFileCache implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedFileCache.class);
+
+    private static final int MAGIC = 0x57584C32; // "WXL2"
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int COMPACTION_THRESHOLD_PERCENT = 25;
+
+    /**
+     * A value read from the cache with the time it was written.
+     */
+    public record Entry(byte[] value, long writtenAtMillis) {
+    }
+
+    /**
+     * One mapped file with its index. Replaced as a whole by compaction, so a
+     * reader always resolves an offset against the buffer it was indexed in.
+     */
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final Map<String, Integer> index;
+        // Written under the cache lock, read without it by usedBytes()
+        private volatile int writePosition;
+        // Bytes of records replaced by a later put for the same key; guarded by the cache lock
+        private int supersededBytes;
+
+        private Segment(MappedByteBuffer buffer, Map<String, Integer> index, int writePosition, int supersededBytes) {
+            this.buffer = buffer;
+            this.index = index;
+            this.writePosition = writePosition;
+            this.supersededBytes = supersededBytes;
+        }
+    }
+
+    private final Path path;
+    private final int capacityBytes;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final ScheduledExecutorService compactor;
+
+    private volatile Segment segment;
+
+    public MappedFileCache(Path path, int capacityBytes, Duration maxAge, Duration compactionInterval) {
+        this(path, capacityBytes, maxAge, compactionInterval, Clock.systemUTC());
+    }
+
+    MappedFileCache(Path path, int capacityBytes, Duration maxAge, Duration compactionInterval, Clock clock) {
+        this.path = path;
+        this.capacityBytes = capacityBytes;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            this.segment = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open L2 cache file " + path, e);
+        }
+        log.info("Opened L2 cache {}: {} entries, {} of {} bytes used",
+                path, segment.index.size(), segment.writePosition, capacityBytes);
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "l2-cache-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compactIfWorthwhile, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the latest value for the key, or null if absent or older than maxAge.
+     */
+    public Entry get(String key) {
+        Segment current = segment;
+        Integer offset = current.index.get(key);
+        if (offset == null) {
+            return null;
+        }
+
+        MappedByteBuffer buffer = current.buffer;
+        int length = buffer.getInt(offset);
+        long writtenAt = buffer.getLong(offset + Integer.BYTES);
+        if (isExpired(writtenAt)) {
+            return null;
+        }
+        int keyLength = buffer.getShort(offset + Integer.BYTES + Long.BYTES);
+        int valueOffset = offset + RECORD_OVERHEAD + keyLength;
+        byte[] value = new byte[offset + Integer.BYTES + length - valueOffset];
+        buffer.get(valueOffset, value);
+        return new Entry(value, writtenAt);
+    }
+
+    /**
+     * Appends the value for the key. If the file is full, expired and superseded
+     * records are compacted away first; if it is still full, the write is dropped.
+     */
+    public synchronized void put(String key, byte[] value, long writtenAtMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Key too long for L2 cache: " + keyBytes.length + " bytes");
+        }
+        int recordBytes = RECORD_OVERHEAD + keyBytes.length + value.length;
+
+        if (segment.writePosition + recordBytes > capacityBytes) {
+            compact();
+            if (segment.writePosition + recordBytes > capacityBytes) {
+                log.warn("L2 cache file is full, dropping entry for: {}", key);
+                return;
+            }
+        }
+        append(segment, keyBytes, value, writtenAtMillis);
+    }
+
+    public int size() {
+        return segment.index.size();
+    }
+
+    public int usedBytes() {
+        return segment.writePosition;
+    }
+
+    /**
+     * Bytes that compaction would free: records superseded by a later put for
+     * the same key, plus latest records that have expired.
+     */
+    public synchronized int reclaimableBytes() {
+        Segment current = segment;
+        int reclaimable = current.supersededBytes;
+        for (int offset : current.index.values()) {
+            if (isExpired(current.buffer.getLong(offset + Integer.BYTES))) {
+                reclaimable += Integer.BYTES + current.buffer.getInt(offset);
+            }
+        }
+        return reclaimable;
+    }
+
+    /**
+     * Rewrites the file keeping only the latest, unexpired record per key.
+     */
+    public synchronized void compact() {
+        Segment current = segment;
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+
+        try {
+            Files.deleteIfExists(compacted);
+            Segment next = open(compacted);
+            for (Map.Entry<String, Integer> indexed : current.index.entrySet()) {
+                int offset = indexed.getValue();
+                long writtenAt = current.buffer.getLong(offset + Integer.BYTES);
+                if (!isExpired(writtenAt)) {
+                    copyRecord(current, offset, next, indexed.getKey());
+                }
+            }
+            next.buffer.force();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.debug("Compacted L2 cache: {} -> {} bytes, {} -> {} entries",
+                    current.writePosition, next.writePosition, current.index.size(), next.index.size());
+            // The old mapping is released once readers holding it are done and it is collected
+            segment = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compact L2 cache file " + path, e);
+        }
+    }
+
+    /**
+     * Stops compaction and flushes written records to disk.
+     */
+    @Override
+    public synchronized void close() {
+        compactor.shutdownNow();
+        segment.buffer.force();
+    }
+
+    /**
+     * Compacts only when enough of the file can be reclaimed to be worth a
+     * rewrite, so an idle or append-only cache is not copied every interval.
+     *
+     * @return whether the file was compacted
+     */
+    synchronized boolean compactIfWorthwhile() {
+        try {
+            long recordBytes = segment.writePosition - HEADER_BYTES;
+            if (recordBytes == 0 || reclaimableBytes() * 100L < recordBytes * COMPACTION_THRESHOLD_PERCENT) {
+                return false;
+            }
+            compact();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("L2 cache compaction failed", e);
+            return false;
+        }
+    }
+
+    private boolean isExpired(long writtenAtMillis) {
+        return clock.millis() - writtenAtMillis >= maxAgeMillis;
+    }
+
+    /**
+     * Maps the file, creating it if needed, and indexes the records it holds.
+     */
+    private Segment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        }
+
+        Map<String, Integer> index = new ConcurrentHashMap<>();
+        if (buffer.getInt(0) != MAGIC) {
+            // New file, or an unknown format: start empty
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(HEADER_BYTES, 0);
+            return new Segment(buffer, index, HEADER_BYTES, 0);
+        }
+
+        int position = HEADER_BYTES;
+        int supersededBytes = 0;
+        while (position + RECORD_OVERHEAD <= capacityBytes) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > capacityBytes) {
+                break; // End of log, or a record torn by a crash
+            }
+            int keyLength = buffer.getShort(position + Integer.BYTES + Long.BYTES);
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(position + RECORD_OVERHEAD, keyBytes);
+            Integer previous = index.put(new String(keyBytes, StandardCharsets.UTF_8), position);
+            if (previous != null) {
+                supersededBytes += Integer.BYTES + buffer.getInt(previous);
+            }
+            position += Integer.BYTES + length;
+        }
+        return new Segment(buffer, index, position, supersededBytes);
+    }
+
+    private void copyRecord(Segment from, int offset, Segment to, String key) {
+        int recordBytes = Integer.BYTES + from.buffer.getInt(offset);
+        byte[] record = new byte[recordBytes];
+        from.buffer.get(offset, record);
+        to.buffer.put(to.writePosition, record);
+        to.index.put(key, to.writePosition);
+        to.writePosition += recordBytes;
+        terminate(to);
+    }
+
+    private void append(Segment target, byte[] keyBytes, byte[] value, long writtenAtMillis) {
+        int offset = target.writePosition;
+        MappedByteBuffer buffer = target.buffer;
+
+        buffer.putLong(offset + Integer.BYTES, writtenAtMillis);
+        buffer.putShort(offset + Integer.BYTES + Long.BYTES, (short) keyBytes.length);
+        buffer.put(offset + RECORD_OVERHEAD, keyBytes);
+        buffer.put(offset + RECORD_OVERHEAD + keyBytes.length, value);
+        // Publish the record by writing its length last
+        buffer.putInt(offset, RECORD_OVERHEAD - Integer.BYTES + keyBytes.length + value.length);
+
+        target.writePosition = offset + RECORD_OVERHEAD + keyBytes.length + value.length;
+        terminate(target);
+        Integer previous = target.index.put(new String(keyBytes, StandardCharsets.UTF_8), offset);
+        if (previous != null) {
+            target.supersededBytes += Integer.BYTES + buffer.getInt(previous);
+        }
+    }
+
+    /**
+     * Zeroes the length slot after the last record so a stale record left over
+     * from a reused file region is not mistaken for a live one on restart.
+     */
+    private void terminate(Segment target) {
+        if (target.writePosition + Integer.BYTES <= capacityBytes) {
+            target.buffer.putInt(target.writePosition, 0);
+        }
+    }
+}
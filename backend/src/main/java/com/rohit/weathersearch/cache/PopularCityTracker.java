@@ -0,0 +1,182 @@
+package com.rohit.weathersearch.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the most requested city cache keys (heavy hitters) in bounded memory.
+ *
+ * Request counts are kept in a count-min sketch: depth rows of width
+ * counters, where each key increments one counter per row, picked by its
+ * hash. A key's estimated count is the smallest of its counters; collisions
+ * can only inflate it, by at most about e / width of all requests in most
+ * cases. Next to the sketch, the topK keys with the highest estimates are
+ * remembered. Counting a key already among them takes no lock; another key
+ * only takes the lock once its estimate beats the lowest of the top keys,
+ * whose place it then takes.
+ *
+ * Halving every counter on decay() lets recent demand outweigh old demand,
+ * so the ranking follows shifts in traffic.
+ */
+public class PopularCityTracker {
+
+    private final int topK;
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+    private final LongAdder totalCount = new LongAdder();
+    private final Set<String> topKeys = ConcurrentHashMap.newKeySet();
+
+    // Lowest estimate among the top keys once there are topK of them; it only
+    // lags behind the real lowest, so a key at or below it cannot enter. Guarded by this for writes
+    private volatile long admissionThreshold;
+
+    /**
+     * @param topK  number of most requested keys to remember
+     * @param width counters per sketch row, rounded up to a power of two
+     * @param depth sketch rows; each one lowers the chance of an inflated estimate
+     */
+    public PopularCityTracker(int topK, int width, int depth) {
+        if (topK < 1 || width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Top K, width and depth must be positive");
+        }
+        int rowWidth = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.topK = topK;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicLongArray(depth * rowWidth);
+    }
+
+    /**
+     * Counts one request for the cache key.
+     */
+    public void record(String cacheKey) {
+        totalCount.increment();
+        long estimate = Long.MAX_VALUE;
+        long hash = hash(cacheKey);
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        if (topKeys.contains(cacheKey) || (topKeys.size() >= topK && estimate <= admissionThreshold)) {
+            return;
+        }
+        admit(cacheKey, estimate);
+    }
+
+    /**
+     * The n most requested keys, most requested first; at most topK.
+     */
+    public List<String> topCities(int n) {
+        return cityCounts(n).stream().map(CityCount::cacheKey).toList();
+    }
+
+    /**
+     * The n most requested keys with their estimated request counts, most
+     * requested first; at most topK.
+     */
+    public List<CityCount> cityCounts(int n) {
+        return topKeys.stream()
+                .map(key -> new CityCount(key, estimate(key)))
+                .sorted(Comparator.comparingLong(CityCount::estimatedCount).reversed()
+                        .thenComparing(CityCount::cacheKey))
+                .limit(n)
+                .toList();
+    }
+
+    /**
+     * Estimated requests for the key since tracking started, with decay applied.
+     */
+    public long estimate(String cacheKey) {
+        long hash = hash(cacheKey);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * All requests counted, with decay applied, including keys outside the top.
+     */
+    public long totalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Halves every count, forgetting top keys that drop to zero.
+     */
+    public synchronized void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, value -> value / 2);
+        }
+        long remaining = totalCount.sumThenReset();
+        totalCount.add(remaining / 2);
+        topKeys.removeIf(key -> estimate(key) == 0);
+        admissionThreshold = topKeys.size() >= topK ? lowest().estimatedCount() : 0;
+    }
+
+    public int trackedCities() {
+        return topKeys.size();
+    }
+
+    private synchronized void admit(String cacheKey, long estimate) {
+        if (topKeys.contains(cacheKey)) {
+            return;
+        }
+        if (topKeys.size() < topK) {
+            topKeys.add(cacheKey);
+        } else {
+            CityCount lowest = lowest();
+            if (estimate <= lowest.estimatedCount()) {
+                admissionThreshold = lowest.estimatedCount();
+                return;
+            }
+            topKeys.remove(lowest.cacheKey());
+            topKeys.add(cacheKey);
+        }
+        if (topKeys.size() >= topK) {
+            admissionThreshold = lowest().estimatedCount();
+        }
+    }
+
+    private CityCount lowest() {
+        CityCount lowest = null;
+        for (String key : topKeys) {
+            long estimate = estimate(key);
+            if (lowest == null || estimate < lowest.estimatedCount()) {
+                lowest = new CityCount(key, estimate);
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * Counter of the key in a row: double hashing, h1 + row * h2, over one
+     * 64-bit hash (the murmur3 finalizer over String.hashCode).
+     */
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private static long hash(String key) {
+        long h = key.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * A tracked cache key and its estimated request count.
+     */
+    public record CityCount(String cacheKey, long estimatedCount) {
+    }
+}
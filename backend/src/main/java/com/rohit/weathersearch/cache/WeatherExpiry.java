@@ -0,0 +1,144 @@
+package com.rohit.weathersearch.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-entry expiry for the weather caches, following the upstream's update cycle.
+ *
+ * OpenWeatherMap publishes a new reading for a location about once per
+ * observation interval, so fetching again before the next one is out returns
+ * the same data. With variable TTL on, an entry therefore expires when the
+ * next reading should be available: its observation time (dt) plus the
+ * interval plus a publish delay, stepped forward by whole intervals if that
+ * moment had already passed when the entry was fetched. Calm conditions
+ * (clear or cloudy, light wind) change little between readings, so the
+ * interval is scaled by stableMultiplier; stormy ones by volatileMultiplier.
+ *
+ * Every entry lives at most maxTtl after it was fetched and at least minTtl
+ * after it was cached. Entries without an observation time, and all entries
+ * with variable TTL off, expire fixedTtl after they were fetched, as before.
+ * The deadline is decided once, when the entry is cached, and stored in it:
+ * the cache expires the entry then, and the freshness lifetime served with
+ * it counts down to the same moment rather than being floored again on
+ * every read.
+ *
+ * An entry is due for a refresh-ahead reload within minTtl of its deadline,
+ * once its data is at least minTtl old, so an upstream that keeps serving an
+ * overdue reading is asked at most once per minTtl.
+ */
+public class WeatherExpiry implements Expiry<String, CompactWeather> {
+
+    private static final Set<String> STABLE_CONDITIONS = Set.of("Clear", "Clouds");
+    private static final Set<String> VOLATILE_CONDITIONS = Set.of("Thunderstorm", "Squall", "Tornado");
+    private static final double STABLE_MAX_WIND_SPEED = 5.5; // m/s, below a moderate breeze
+    private static final double VOLATILE_MIN_WIND_SPEED = 10.8; // m/s, a strong breeze or more
+
+    private final boolean enabled;
+    private final long fixedTtlMillis;
+    private final long observationIntervalMillis;
+    private final long publishDelayMillis;
+    private final long minTtlMillis;
+    private final long maxTtlMillis;
+    private final double stableMultiplier;
+    private final double volatileMultiplier;
+
+    public WeatherExpiry(boolean enabled, Duration fixedTtl, Duration observationInterval, Duration publishDelay,
+                         Duration minTtl, Duration maxTtl, double stableMultiplier, double volatileMultiplier) {
+        if (enabled && (minTtl.isNegative() || minTtl.compareTo(maxTtl) > 0)) {
+            throw new IllegalArgumentException("Variable TTL needs 0 <= min TTL <= max TTL");
+        }
+        if (enabled && (observationInterval.isZero() || stableMultiplier <= 0 || volatileMultiplier <= 0)) {
+            throw new IllegalArgumentException("Observation interval and multipliers must be positive");
+        }
+        this.enabled = enabled;
+        this.fixedTtlMillis = fixedTtl.toMillis();
+        this.observationIntervalMillis = observationInterval.toMillis();
+        this.publishDelayMillis = publishDelay.toMillis();
+        this.minTtlMillis = minTtl.toMillis();
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.stableMultiplier = stableMultiplier;
+        this.volatileMultiplier = volatileMultiplier;
+    }
+
+    /**
+     * When the entry stops being fresh, in epoch millis: its stored deadline,
+     * or for an entry packed without one, the deadline it would get if cached now.
+     */
+    public long expiresAtMillis(CompactWeather weather) {
+        long stored = weather.getExpiresAtMillis();
+        return stored >= 0 ? stored : expiresAtMillis(weather, System.currentTimeMillis());
+    }
+
+    /**
+     * Whether a refresh-ahead reload is worth making now. Earlier than minTtl
+     * before expiry it would most likely fetch the same reading again.
+     */
+    public boolean isRefreshDue(CompactWeather weather) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        return expiresAtMillis(weather) - now <= minTtlMillis
+                && now - weather.getFetchedAtMillis() >= minTtlMillis;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, CompactWeather weather, long currentTime) {
+        if (!enabled) {
+            return TimeUnit.MILLISECONDS.toNanos(fixedTtlMillis);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAtMillis(weather) - System.currentTimeMillis()));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, CompactWeather weather, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, weather, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, CompactWeather weather, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    /**
+     * The deadline for an entry cached at nowMillis, ignoring any stored one.
+     */
+    public long expiresAtMillis(CompactWeather weather, long nowMillis) {
+        long fetchedAt = weather.getFetchedAtMillis();
+        if (!enabled) {
+            return fetchedAt + fixedTtlMillis;
+        }
+
+        long deadline;
+        long observedAt = weather.getObservedAtMillis();
+        if (observedAt < 0) {
+            deadline = fetchedAt + fixedTtlMillis;
+        } else {
+            long interval = Math.max(1, (long) (observationIntervalMillis * multiplier(weather)));
+            deadline = observedAt + interval + publishDelayMillis;
+            long earliest = fetchedAt + minTtlMillis;
+            if (deadline < earliest) {
+                // The next reading was overdue when fetched; expect it one interval slot later
+                deadline += (earliest - deadline + interval - 1) / interval * interval;
+            }
+            deadline = Math.min(deadline, fetchedAt + maxTtlMillis);
+        }
+        return Math.max(deadline, nowMillis + minTtlMillis);
+    }
+
+    private double multiplier(CompactWeather weather) {
+        String condition = weather.getWeatherMain() != null ? weather.getWeatherMain() : "";
+        double windSpeed = weather.getWindSpeed(); // NaN if unknown, which counts as neither calm nor strong
+        if (VOLATILE_CONDITIONS.contains(condition) || windSpeed >= VOLATILE_MIN_WIND_SPEED) {
+            return volatileMultiplier;
+        }
+        if (STABLE_CONDITIONS.contains(condition) && windSpeed < STABLE_MAX_WIND_SPEED) {
+            return stableMultiplier;
+        }
+        return 1;
+    }
+}
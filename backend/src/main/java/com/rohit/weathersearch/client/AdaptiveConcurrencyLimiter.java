@@ -0,0 +1,214 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for upstream calls with an AIMD (additive increase, multiplicative
+ * decrease) concurrency limit.
+ *
+ * Each completed call is a latency sample. A call that fails with an overload
+ * signal or takes longer than the latency threshold shrinks the limit by the
+ * backoff ratio; a fast call made while the limit is well utilised grows it by one.
+ * Calls beyond the limit wait in a bounded FIFO queue for up to maxQueueWait,
+ * and are rejected with UpstreamBusyException when the queue is full or the wait expires.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int maxQueueSize;
+    private final Duration maxQueueWait;
+
+    // Guarded by this
+    private double limit;
+    private int inFlight;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      Duration latencyThreshold, int maxQueueSize, Duration maxQueueWait) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    /**
+     * Runs the call once a permit is available.
+     *
+     * @param call     upstream call, subscribed only after a permit is granted
+     * @param isDrop   which errors signal upstream overload (and shrink the limit)
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> call, Predicate<Throwable> isDrop) {
+        return acquire().flatMap(permit -> call.get()
+                .doOnSuccess(value -> permit.release(Outcome.SAMPLE))
+                .doOnError(error -> permit.release(isDrop.test(error) ? Outcome.DROP : Outcome.SAMPLE))
+                .doOnCancel(() -> permit.release(Outcome.IGNORE)));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit permit = null;
+            boolean rejected = false;
+
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    permit = new Permit(inFlight);
+                } else if (waiters.size() < maxQueueSize) {
+                    Waiter waiter = new Waiter(sink);
+                    waiters.addLast(waiter);
+                    waiter.timeout = Schedulers.parallel().schedule(
+                            () -> expire(waiter), maxQueueWait.toMillis(), TimeUnit.MILLISECONDS);
+                    sink.onCancel(() -> cancel(waiter));
+                } else {
+                    rejected = true;
+                }
+            }
+
+            if (permit != null) {
+                sink.success(permit);
+            } else if (rejected) {
+                reject(sink, "Upstream concurrency limit reached");
+            }
+        });
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.state != WaiterState.WAITING) {
+                return;
+            }
+            waiter.state = WaiterState.CANCELLED;
+            waiters.remove(waiter);
+        }
+        reject(waiter.sink, "Timed out waiting for an upstream permit");
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit granted = null;
+        synchronized (this) {
+            if (waiter.state == WaiterState.WAITING) {
+                waiter.state = WaiterState.CANCELLED;
+                waiters.remove(waiter);
+            } else if (waiter.state == WaiterState.GRANTED) {
+                granted = waiter.permit;
+            }
+        }
+        waiter.timeout.dispose();
+        if (granted != null) {
+            // Cancelled before the permit reached the caller; release is idempotent
+            granted.release(Outcome.IGNORE);
+        }
+    }
+
+    private void reject(MonoSink<Permit> sink, String reason) {
+        rejectedCount.incrementAndGet();
+        sink.error(new UpstreamBusyException(reason));
+    }
+
+    private void onRelease(Permit permit, Outcome outcome) {
+        List<Waiter> granted = new ArrayList<>();
+
+        synchronized (this) {
+            long latency = System.nanoTime() - permit.startNanos;
+            if (outcome == Outcome.DROP || (outcome == Outcome.SAMPLE && latency > latencyThresholdNanos)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (outcome == Outcome.SAMPLE && permit.inFlightAtStart * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.pollFirst();
+                inFlight++;
+                waiter.state = WaiterState.GRANTED;
+                waiter.permit = new Permit(inFlight);
+                granted.add(waiter);
+            }
+        }
+
+        for (Waiter waiter : granted) {
+            waiter.timeout.dispose();
+            waiter.sink.success(waiter.permit);
+        }
+    }
+
+    private enum Outcome {
+        SAMPLE, DROP, IGNORE
+    }
+
+    private enum WaiterState {
+        WAITING, GRANTED, CANCELLED
+    }
+
+    private final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        private void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(this, outcome);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private WaiterState state = WaiterState.WAITING;
+        private Permit permit;
+        private Disposable timeout;
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+}
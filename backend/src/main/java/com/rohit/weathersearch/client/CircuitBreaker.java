@@ -0,0 +1,236 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.CircuitOpenException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for upstream calls, over a sliding window of the last
+ * windowSize call outcomes.
+ *
+ * While CLOSED every call goes through. Once the window holds at least
+ * minimumCalls outcomes and the share of failed calls, or of calls slower than
+ * the slow-call threshold, reaches its rate threshold, the breaker OPENs: calls
+ * fail immediately with CircuitOpenException instead of waiting for the
+ * upstream timeout. After openDuration it goes HALF_OPEN and lets
+ * halfOpenCalls probe calls through; if all of them succeed quickly it closes
+ * again with an empty window, otherwise it opens for another openDuration.
+ *
+ * A call is timed from the moment it reaches the upstream, not from when it
+ * started queueing for quota or a concurrency permit in front of it, so
+ * waiting on our own budget is not mistaken for a slow upstream.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this. Ring buffer of outcomes, with running totals
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, Duration slowCallThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallThreshold,
+                openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                   double slowCallRateThreshold, Duration slowCallThreshold,
+                   Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Window must satisfy 1 <= minimum calls <= window size");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1
+                || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new IllegalArgumentException("Rate thresholds must be in (0, 1]");
+        }
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("At least one half-open call is required");
+        }
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs the call unless the circuit is open.
+     *
+     * @param call      upstream call, subscribed only if the circuit lets it through
+     * @param isFailure which errors count as failed calls; other errors count as successful calls
+     * @param isIgnored which errors are not recorded at all, e.g. calls that never reached the upstream
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> call, Predicate<Throwable> isFailure,
+                               Predicate<Throwable> isIgnored) {
+        return execute(startTimer -> Mono.defer(() -> {
+            startTimer.run();
+            return call.get();
+        }), isFailure, isIgnored);
+    }
+
+    /**
+     * Runs the call unless the circuit is open, timing it from when it runs
+     * startTimer: call that just before the upstream request, after any
+     * waiting for quota or permits. Until then it is timed from subscription.
+     *
+     * @param call      builds the upstream call from startTimer, subscribed only if the circuit lets it through
+     * @param isFailure which errors count as failed calls; other errors count as successful calls
+     * @param isIgnored which errors are not recorded at all, e.g. calls that never reached the upstream
+     */
+    public <T> Mono<T> execute(Function<Runnable, Mono<T>> call, Predicate<Throwable> isFailure,
+                               Predicate<Throwable> isIgnored) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejectedCount.incrementAndGet();
+                return Mono.error(new CircuitOpenException("Weather API circuit breaker is open"));
+            }
+            AtomicLong startNanos = new AtomicLong(nanoClock.getAsLong());
+            AtomicBoolean done = new AtomicBoolean();
+            return call.apply(() -> startNanos.set(nanoClock.getAsLong()))
+                    .doOnSuccess(value -> {
+                        if (done.compareAndSet(false, true)) {
+                            onResult(false, startNanos.get());
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (done.compareAndSet(false, true)) {
+                            if (isIgnored.test(error)) {
+                                onIgnored();
+                            } else {
+                                onResult(isFailure.test(error), startNanos.get());
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            onIgnored();
+                        }
+                    });
+        });
+    }
+
+    public synchronized State getState() {
+        // Report an expired open period as half-open even before the next call moves it there
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    private synchronized void onResult(boolean isFailed, long startNanos) {
+        boolean isSlow = nanoClock.getAsLong() - startNanos > slowCallNanos;
+
+        switch (state) {
+            case CLOSED -> {
+                record(isFailed, isSlow);
+                if (recorded >= minimumCalls
+                        && (failedCount >= failureRateThreshold * recorded
+                            || slowCount >= slowCallRateThreshold * recorded)) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> {
+                if (isFailed || isSlow) {
+                    open();
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case OPEN -> {
+                // A call started before the circuit opened; the window was already judged
+            }
+        }
+    }
+
+    /**
+     * Gives back a half-open probe that produced no verdict.
+     */
+    private synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    private void record(boolean isFailed, boolean isSlow) {
+        if (recorded == failed.length) {
+            failedCount -= failed[next] ? 1 : 0;
+            slowCount -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = isFailed;
+        slow[next] = isSlow;
+        failedCount += isFailed ? 1 : 0;
+        slowCount += isSlow ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+}
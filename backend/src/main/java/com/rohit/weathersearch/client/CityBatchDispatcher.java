@@ -0,0 +1,176 @@
+package com.rohit.weathersearch.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohit.weathersearch.exception.CityNotFoundException;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups upstream city lookups into OpenWeatherMap group calls.
+ *
+ * The group endpoint takes city ids, not names, so a city is fetched by name
+ * the first time and its id is remembered from the response. Later lookups of
+ * a city with a known id wait up to one window for others to join, and every
+ * maxBatchSize of them (or whatever gathered when the window closes) go out
+ * as a single call, taking one quota token and one limiter permit. Each
+ * caller then gets its own city's weather.
+ *
+ * A city missing from the group answer is looked up by name again, so an
+ * unknown city still fails with CityNotFoundException on its own. A failing
+ * group call fails all of its callers, as their own calls would have.
+ */
+public class CityBatchDispatcher {
+
+    // The group endpoint accepts at most this many ids per call
+    public static final int MAX_GROUP_SIZE = 20;
+
+    private final OpenWeatherMapClient weatherClient;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Cache<String, Long> cityIds;
+
+    // Guarded by this
+    private List<Pending> pending = new ArrayList<>();
+    private Disposable windowTimer;
+
+    private final AtomicLong groupCallCount = new AtomicLong();
+    private final AtomicLong batchedLookupCount = new AtomicLong();
+
+    public CityBatchDispatcher(OpenWeatherMapClient weatherClient, boolean enabled, Duration window,
+                               int maxBatchSize, int maxKnownCities) {
+        if (enabled && (maxBatchSize < 1 || maxBatchSize > MAX_GROUP_SIZE)) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_GROUP_SIZE);
+        }
+        this.weatherClient = weatherClient;
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.maxBatchSize = maxBatchSize;
+        this.cityIds = Caffeine.newBuilder()
+                .maximumSize(maxKnownCities)
+                .build();
+    }
+
+    /**
+     * Fetches current weather for a city, in a group call if its id is known.
+     *
+     * @throws CityNotFoundException if the API does not know the city
+     * @throws com.rohit.weathersearch.exception.ExternalApiException as
+     *         {@link OpenWeatherMapClient#fetchCurrentWeather(String, UpstreamPriority)}
+     */
+    public Mono<WeatherResponse> fetchCurrentWeather(String cityName, UpstreamPriority priority) {
+        String key = cityName.trim().toLowerCase();
+        Long cityId = enabled ? cityIds.getIfPresent(key) : null;
+        if (cityId == null) {
+            return fetchByName(key, cityName, priority);
+        }
+        return Mono.defer(() -> enqueue(cityId, priority))
+                .switchIfEmpty(Mono.defer(() -> {
+                    // Not in the group answer: the id may be stale, so ask by name
+                    cityIds.invalidate(key);
+                    return fetchByName(key, cityName, priority);
+                }));
+    }
+
+    public long getGroupCallCount() {
+        return groupCallCount.get();
+    }
+
+    public long getBatchedLookupCount() {
+        return batchedLookupCount.get();
+    }
+
+    public long getKnownCityCount() {
+        return cityIds.estimatedSize();
+    }
+
+    private Mono<WeatherResponse> fetchByName(String key, String cityName, UpstreamPriority priority) {
+        return weatherClient.fetchCurrentWeather(cityName, priority)
+                .doOnNext(response -> {
+                    if (enabled && response.getCityId() != null) {
+                        cityIds.put(key, response.getCityId());
+                    }
+                })
+                .doOnError(CityNotFoundException.class, e -> cityIds.invalidate(key));
+    }
+
+    private Mono<WeatherResponse> enqueue(long cityId, UpstreamPriority priority) {
+        Sinks.One<WeatherResponse> sink = Sinks.one();
+        List<Pending> full = null;
+        synchronized (this) {
+            pending.add(new Pending(cityId, priority, sink));
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                windowTimer = Schedulers.parallel().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return sink.asMono();
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            // A timer that fires after its batch went out full just sends a
+            // smaller batch early, which is harmless
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private List<Pending> takePending() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        if (windowTimer != null) {
+            windowTimer.dispose();
+            windowTimer = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        groupCallCount.incrementAndGet();
+        batchedLookupCount.addAndGet(batch.size());
+        List<Long> ids = batch.stream().map(Pending::cityId).distinct().toList();
+        // A waiting user lifts the whole call to their priority
+        UpstreamPriority priority = batch.stream().anyMatch(p -> p.priority() == UpstreamPriority.INTERACTIVE)
+                ? UpstreamPriority.INTERACTIVE : UpstreamPriority.BACKGROUND;
+
+        weatherClient.fetchCurrentWeather(ids, priority).subscribe(
+                responses -> {
+                    Map<Long, WeatherResponse> byId = new HashMap<>();
+                    for (WeatherResponse response : responses) {
+                        byId.put(response.getCityId(), response);
+                    }
+                    for (Pending p : batch) {
+                        WeatherResponse response = byId.get(p.cityId());
+                        if (response != null) {
+                            p.sink().tryEmitValue(response);
+                        } else {
+                            p.sink().tryEmitEmpty();
+                        }
+                    }
+                },
+                error -> batch.forEach(p -> p.sink().tryEmitError(error)));
+    }
+
+    private record Pending(long cityId, UpstreamPriority priority, Sinks.One<WeatherResponse> sink) {
+    }
+}
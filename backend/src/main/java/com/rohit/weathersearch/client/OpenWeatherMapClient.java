@@ -0,0 +1,224 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.CityNotFoundException;
+import com.rohit.weathersearch.exception.ExternalApiException;
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Client for the OpenWeatherMap current weather API.
+ * All calls pass through the circuit breaker, take API quota (and with it
+ * the API key to use) from the quota manager, then pass the adaptive
+ * concurrency limiter. Response bodies
+ * are decoded straight into WeatherResponse by WeatherResponseDecoder.
+ * A group call for several city ids counts as one call everywhere.
+ */
+@Component
+public class OpenWeatherMapClient {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenWeatherMapClient.class);
+
+    // Same cap as the default codec limit for in-memory bodies
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final WebClient webClient;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final UpstreamQuotaManager quotaManager;
+    private final Timer decodeTimer;
+    private final String groupPath;
+
+    public OpenWeatherMapClient(WebClient webClient, AdaptiveConcurrencyLimiter limiter,
+                                CircuitBreaker circuitBreaker, UpstreamQuotaManager quotaManager,
+                                MeterRegistry meterRegistry, @Value("${openweather.api.url}") String apiUrl) {
+        this.webClient = webClient;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.quotaManager = quotaManager;
+        this.decodeTimer = Timer.builder("weather.conversion")
+                .description("Time to decode an OpenWeatherMap response into a WeatherResponse")
+                .register(meterRegistry);
+        // The group endpoint sits next to the current weather one: .../data/2.5/group
+        String weatherPath = URI.create(apiUrl).getPath();
+        this.groupPath = weatherPath.substring(0, weatherPath.lastIndexOf('/') + 1) + "group";
+    }
+
+    /**
+     * Fetches current weather for a city.
+     *
+     * @throws CityNotFoundException if the API does not know the city (404)
+     * @throws ExternalApiException on other 4xx, server errors, timeouts, an open circuit,
+     *         exhausted quota or rejection by the limiter
+     */
+    public Mono<WeatherResponse> fetchCurrentWeather(String cityName, UpstreamPriority priority) {
+        return limited(apiKey -> request(uri -> uri.queryParam("q", cityName), cityName, apiKey, this::decode),
+                priority)
+                .doOnNext(OpenWeatherMapClient::logFetched);
+    }
+
+    /**
+     * Fetches current weather for a coordinate.
+     *
+     * @throws CityNotFoundException if the API rejects the coordinate (404)
+     * @throws ExternalApiException on other 4xx, server errors, timeouts, an open circuit,
+     *         exhausted quota or rejection by the limiter
+     */
+    public Mono<WeatherResponse> fetchCurrentWeather(double latitude, double longitude, UpstreamPriority priority) {
+        return limited(apiKey -> request(
+                uri -> uri.queryParam("lat", latitude).queryParam("lon", longitude),
+                latitude + "," + longitude, apiKey, this::decode), priority)
+                .doOnNext(OpenWeatherMapClient::logFetched);
+    }
+
+    /**
+     * Fetches current weather for several cities by OpenWeatherMap city id in
+     * one call (at most 20 ids). Ids the API does not know are left out of
+     * the result; if it knows none of them, the result is empty.
+     *
+     * @throws ExternalApiException on other 4xx, server errors, timeouts, an open circuit,
+     *         exhausted quota or rejection by the limiter
+     */
+    public Mono<List<WeatherResponse>> fetchCurrentWeather(List<Long> cityIds, UpstreamPriority priority) {
+        String ids = cityIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return limited(apiKey -> request(
+                uri -> uri.replacePath(groupPath).queryParam("id", ids),
+                "city ids " + ids, apiKey, this::decodeGroup), priority)
+                .doOnNext(responses -> log.info("Successfully fetched weather data for {} of {} city ids in one call",
+                        responses.size(), cityIds.size()))
+                .onErrorResume(CityNotFoundException.class, e -> Mono.just(List.of()));
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public UpstreamQuotaManager getQuotaManager() {
+        return quotaManager;
+    }
+
+    private <T> Mono<T> limited(Function<String, Mono<T>> call, UpstreamPriority priority) {
+        // A 404 is a valid answer, not a sign of upstream overload or failure.
+        // The breaker sits outside, so an open circuit neither spends quota nor
+        // queues for a permit. Calls shed for quota or by the limiter, and 429s,
+        // are about our budget rather than API health, and the slow-call clock
+        // only starts once quota and a permit are held.
+        return circuitBreaker.execute(
+                        startTimer -> quotaManager.acquire(priority).flatMap(apiKey -> limiter.execute(
+                                () -> {
+                                    startTimer.run();
+                                    return call.apply(apiKey);
+                                },
+                                error -> !(error instanceof CityNotFoundException))),
+                        error -> !(error instanceof CityNotFoundException),
+                        error -> error instanceof UpstreamBusyException)
+                // CityNotFoundException keeps its 404, ExternalApiException its 502;
+                // anything else is an unexpected failure reported as 502
+                .onErrorMap(
+                    e -> !(e instanceof CityNotFoundException) && !(e instanceof ExternalApiException),
+                    e -> {
+                        log.error("Unexpected error fetching weather data", e);
+                        return new ExternalApiException("Unexpected error while fetching weather data", e);
+                    }
+                );
+    }
+
+    /**
+     * Builds the (lazy) API call. The location query parameters are added by
+     * the caller; locationLabel names the location in CityNotFoundException.
+     * A 429 empties the key's quota bucket and sheds the call like the limiter.
+     */
+    private <T> Mono<T> request(UnaryOperator<UriBuilder> location, String locationLabel, String apiKey,
+                                Function<DataBuffer, T> decoder) {
+        Flux<DataBuffer> body = webClient
+                .get()
+                .uri(uriBuilder -> location.apply(uriBuilder)
+                        .queryParam("appid", apiKey)
+                        .queryParam("units", "metric") // Use metric units (Celsius)
+                        .build())
+                .retrieve()
+                .onStatus(
+                    status -> status.value() == HttpStatus.TOO_MANY_REQUESTS.value(),
+                    response -> {
+                        quotaManager.exhaust(apiKey);
+                        return Mono.error(new UpstreamBusyException("Weather API rate limit exceeded"));
+                    }
+                )
+                .onStatus(
+                    status -> status.value() == HttpStatus.NOT_FOUND.value(),
+                    response -> Mono.error(new CityNotFoundException(locationLabel))
+                )
+                .onStatus(
+                    // A bad key or malformed request says nothing about the city,
+                    // so it goes to the breaker and stale fallback, never the negative cache
+                    status -> status.is4xxClientError(),
+                    response -> Mono.error(new ExternalApiException(
+                            "Weather API rejected the request: " + response.statusCode().value()))
+                )
+                .onStatus(
+                    status -> status.is5xxServerError(),
+                    response -> Mono.error(new ExternalApiException("Weather API server error"))
+                )
+                .bodyToFlux(DataBuffer.class);
+        
+        return DataBufferUtils.join(body, MAX_BODY_BYTES)
+                .map(decoder)
+                .switchIfEmpty(Mono.error(() -> new ExternalApiException("Received null response from weather API")));
+    }
+
+    private static void logFetched(WeatherResponse response) {
+        log.info("Successfully fetched weather data for: {}", response.getCityName());
+    }
+
+    /**
+     * Decodes and releases the joined body buffer.
+     */
+    private WeatherResponse decode(DataBuffer body) {
+        Timer.Sample sample = Timer.start();
+        try (InputStream in = body.asInputStream(true)) {
+            return WeatherResponseDecoder.decode(in);
+        } catch (IOException e) {
+            throw new ExternalApiException("Unreadable response from weather API", e);
+        } finally {
+            sample.stop(decodeTimer);
+        }
+    }
+
+    /**
+     * Decodes and releases the joined body buffer of a group call.
+     */
+    private List<WeatherResponse> decodeGroup(DataBuffer body) {
+        Timer.Sample sample = Timer.start();
+        try (InputStream in = body.asInputStream(true)) {
+            return WeatherResponseDecoder.decodeGroup(in);
+        } catch (IOException e) {
+            throw new ExternalApiException("Unreadable response from weather API", e);
+        } finally {
+            sample.stop(decodeTimer);
+        }
+    }
+}
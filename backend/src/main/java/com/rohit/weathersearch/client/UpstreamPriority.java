@@ -0,0 +1,17 @@
+package com.rohit.weathersearch.client;
+
+/**
+ * Priority class of an upstream call when API quota is short.
+ */
+public enum UpstreamPriority {
+
+    /**
+     * A user is waiting for the answer: cache misses and batch lookups.
+     */
+    INTERACTIVE,
+
+    /**
+     * Nobody is waiting: refresh-ahead reloads and startup warm-up.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,315 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request budget for a pool of OpenWeatherMap API keys.
+ *
+ * Each key has a token bucket refilled at its requests-per-minute quota and
+ * holding at most burst tokens. Every upstream call takes one token from the
+ * key with the most left, which spreads calls evenly over the pool; the call
+ * is then made with that key. Background calls may not take the last
+ * backgroundReserve share of a bucket, which is kept for interactive calls.
+ *
+ * When no key has budget, calls wait in one FIFO queue per priority class,
+ * and interactive waiters are always served before background ones. A
+ * waiter is rejected with UpstreamBusyException when the queue is full or
+ * its class's maximum wait expires.
+ *
+ * With requestsPerMinute 0 there is no budget: calls never wait, and go to
+ * the keys in turn.
+ */
+public class UpstreamQuotaManager {
+
+    private final List<KeyBucket> buckets = new ArrayList<>();
+    private final boolean unlimited;
+    private final int burst;
+    private final double tokensPerNano;
+    private final double backgroundThreshold;
+    private final Duration interactiveMaxWait;
+    private final Duration backgroundMaxWait;
+    private final int maxQueueSize;
+
+    // Guarded by this
+    private final Deque<Waiter> interactiveWaiters = new ArrayDeque<>();
+    private final Deque<Waiter> backgroundWaiters = new ArrayDeque<>();
+    private boolean drainScheduled;
+    private long drainAtNanos;
+    private int nextKey;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public UpstreamQuotaManager(List<String> apiKeys, double requestsPerMinute, int burst, double backgroundReserve,
+                                Duration interactiveMaxWait, Duration backgroundMaxWait, int maxQueueSize) {
+        if (apiKeys.isEmpty()) {
+            throw new IllegalArgumentException("At least one API key is required");
+        }
+        if (requestsPerMinute < 0 || (requestsPerMinute > 0 && burst < 1)) {
+            throw new IllegalArgumentException("Requests per minute must not be negative, and burst must be positive");
+        }
+        if (backgroundReserve < 0 || backgroundReserve >= 1) {
+            throw new IllegalArgumentException("Background reserve must be between 0 (inclusive) and 1");
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < apiKeys.size(); i++) {
+            buckets.add(new KeyBucket("key-" + (i + 1), apiKeys.get(i), burst, now));
+        }
+        this.unlimited = requestsPerMinute == 0;
+        this.burst = burst;
+        this.tokensPerNano = requestsPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.backgroundThreshold = 1 + backgroundReserve * burst;
+        this.interactiveMaxWait = interactiveMaxWait;
+        this.backgroundMaxWait = backgroundMaxWait;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Takes one request of budget, waiting for it if needed.
+     *
+     * @return the API key to make the call with
+     */
+    public Mono<String> acquire(UpstreamPriority priority) {
+        return Mono.create(sink -> {
+            String apiKey = null;
+            boolean rejected = false;
+
+            synchronized (this) {
+                // Never overtake a waiter of the same or a higher priority
+                boolean waitersAhead = !interactiveWaiters.isEmpty()
+                        || (priority == UpstreamPriority.BACKGROUND && !backgroundWaiters.isEmpty());
+                if (!waitersAhead) {
+                    apiKey = take(priority, System.nanoTime());
+                }
+                if (apiKey == null) {
+                    if (interactiveWaiters.size() + backgroundWaiters.size() < maxQueueSize) {
+                        Waiter waiter = new Waiter(sink, priority);
+                        waiters(priority).addLast(waiter);
+                        Duration maxWait = priority == UpstreamPriority.INTERACTIVE
+                                ? interactiveMaxWait : backgroundMaxWait;
+                        waiter.timeout = Schedulers.parallel().schedule(
+                                () -> expire(waiter), maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                        sink.onCancel(() -> cancel(waiter));
+                        scheduleDrain();
+                    } else {
+                        rejected = true;
+                    }
+                }
+            }
+
+            if (apiKey != null) {
+                sink.success(apiKey);
+            } else if (rejected) {
+                reject(sink, "Weather API quota exhausted");
+            }
+        });
+    }
+
+    /**
+     * Empties a key's bucket after the API answered 429, so the pool
+     * stops using it until it has refilled. Without a budget there is no
+     * bucket to empty.
+     */
+    public synchronized void exhaust(String apiKey) {
+        if (unlimited) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (KeyBucket bucket : buckets) {
+            if (bucket.apiKey.equals(apiKey)) {
+                bucket.refill(now, burst, tokensPerNano);
+                bucket.tokens = 0;
+            }
+        }
+    }
+
+    /**
+     * Remaining budget of each key, in pool order; empty without a budget.
+     */
+    public synchronized List<KeyBudget> getBudgets() {
+        if (unlimited) {
+            return List.of();
+        }
+        long now = System.nanoTime();
+        List<KeyBudget> budgets = new ArrayList<>(buckets.size());
+        for (KeyBucket bucket : buckets) {
+            bucket.refill(now, burst, tokensPerNano);
+            budgets.add(new KeyBudget(bucket.id, (int) bucket.tokens, burst));
+        }
+        return budgets;
+    }
+
+    public synchronized int getQueued(UpstreamPriority priority) {
+        return waiters(priority).size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Takes a token from the fullest key if it has budget for this priority.
+     */
+    private String take(UpstreamPriority priority, long now) {
+        if (unlimited) {
+            KeyBucket next = buckets.get(nextKey);
+            nextKey = (nextKey + 1) % buckets.size();
+            return next.apiKey;
+        }
+        KeyBucket fullest = fullest(now);
+        double threshold = priority == UpstreamPriority.INTERACTIVE ? 1 : backgroundThreshold;
+        if (fullest.tokens < threshold) {
+            return null;
+        }
+        fullest.tokens--;
+        return fullest.apiKey;
+    }
+
+    private KeyBucket fullest(long now) {
+        KeyBucket fullest = null;
+        for (KeyBucket bucket : buckets) {
+            bucket.refill(now, burst, tokensPerNano);
+            if (fullest == null || bucket.tokens > fullest.tokens) {
+                fullest = bucket;
+            }
+        }
+        return fullest;
+    }
+
+    /**
+     * Schedules a drain for when the fullest key will have budget for the first
+     * waiter, unless one is already due by then. An interactive waiter arriving
+     * behind background ones can need an earlier drain; an extra one is harmless.
+     */
+    private void scheduleDrain() {
+        long now = System.nanoTime();
+        double threshold = interactiveWaiters.isEmpty() ? backgroundThreshold : 1;
+        double missing = threshold - fullest(now).tokens;
+        long delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) Math.ceil(missing / tokensPerNano));
+        if (drainScheduled && drainAtNanos - (now + delayNanos) <= 0) {
+            return;
+        }
+        drainScheduled = true;
+        drainAtNanos = now + delayNanos;
+        Schedulers.parallel().schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+
+        synchronized (this) {
+            drainScheduled = false;
+            long now = System.nanoTime();
+            grant(interactiveWaiters, UpstreamPriority.INTERACTIVE, now, granted);
+            if (interactiveWaiters.isEmpty()) {
+                grant(backgroundWaiters, UpstreamPriority.BACKGROUND, now, granted);
+            }
+            if (!interactiveWaiters.isEmpty() || !backgroundWaiters.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        for (Waiter waiter : granted) {
+            waiter.timeout.dispose();
+            waiter.sink.success(waiter.apiKey);
+        }
+    }
+
+    private void grant(Deque<Waiter> waiters, UpstreamPriority priority, long now, List<Waiter> granted) {
+        while (!waiters.isEmpty()) {
+            String apiKey = take(priority, now);
+            if (apiKey == null) {
+                return;
+            }
+            Waiter waiter = waiters.pollFirst();
+            waiter.state = WaiterState.GRANTED;
+            waiter.apiKey = apiKey;
+            granted.add(waiter);
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.state != WaiterState.WAITING) {
+                return;
+            }
+            waiter.state = WaiterState.CANCELLED;
+            waiters(waiter.priority).remove(waiter);
+        }
+        reject(waiter.sink, "Timed out waiting for weather API quota");
+    }
+
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            // A token already granted stays spent; the call may have gone out
+            if (waiter.state == WaiterState.WAITING) {
+                waiter.state = WaiterState.CANCELLED;
+                waiters(waiter.priority).remove(waiter);
+            }
+        }
+        waiter.timeout.dispose();
+    }
+
+    private void reject(MonoSink<String> sink, String reason) {
+        rejectedCount.incrementAndGet();
+        sink.error(new UpstreamBusyException(reason));
+    }
+
+    private Deque<Waiter> waiters(UpstreamPriority priority) {
+        return priority == UpstreamPriority.INTERACTIVE ? interactiveWaiters : backgroundWaiters;
+    }
+
+    /**
+     * Remaining whole requests of one key's budget, identified by its position
+     * in the pool rather than the key itself.
+     */
+    public record KeyBudget(String id, int remaining, int capacity) {
+    }
+
+    private enum WaiterState {
+        WAITING, GRANTED, CANCELLED
+    }
+
+    private static final class KeyBucket {
+        private final String id;
+        private final String apiKey;
+        private double tokens;
+        private long refilledAtNanos;
+
+        private KeyBucket(String id, String apiKey, int burst, long now) {
+            this.id = id;
+            this.apiKey = apiKey;
+            this.tokens = burst;
+            this.refilledAtNanos = now;
+        }
+
+        private void refill(long now, int burst, double tokensPerNano) {
+            tokens = Math.min(burst, tokens + (now - refilledAtNanos) * tokensPerNano);
+            refilledAtNanos = now;
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<String> sink;
+        private final UpstreamPriority priority;
+        private WaiterState state = WaiterState.WAITING;
+        private String apiKey;
+        private Disposable timeout;
+
+        private Waiter(MonoSink<String> sink, UpstreamPriority priority) {
+            this.sink = sink;
+            this.priority = priority;
+        }
+    }
+}
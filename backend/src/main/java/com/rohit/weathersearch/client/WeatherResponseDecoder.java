@@ -0,0 +1,249 @@
+package com.rohit.weathersearch.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes an OpenWeatherMap current weather body straight into a
+ * WeatherResponse, token by token.
+ *
+ * Binding the body to OpenWeatherMapResponse first and copying it over
+ * allocates a second object graph (Coord, Main, Wind, Clouds, Sys and a
+ * list of Weather) on every miss. Here only the fields we serve are read;
+ * everything else, including nested objects and arrays, is skipped without
+ * being materialized. Numbers are read leniently, as databind would: an
+ * integer field accepts 220.5 or "220", and null stays null.
+ */
+public final class WeatherResponseDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private WeatherResponseDecoder() {
+    }
+
+    /**
+     * Decodes a response body. The stream is closed.
+     *
+     * @throws IOException if the body is not a JSON object
+     */
+    public static WeatherResponse decode(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Decodes a group (several city ids) response body, {"cnt": n, "list": [...]},
+     * into one WeatherResponse per listed city. The stream is closed.
+     *
+     * @throws IOException if the body is not a JSON object
+     */
+    public static List<WeatherResponse> decodeGroup(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            List<WeatherResponse> responses = new ArrayList<>();
+            for (String field; (field = nextField(parser)) != null; ) {
+                if (field.equals("list") && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.START_OBJECT) {
+                            responses.add(readResponse(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return responses;
+        }
+    }
+
+    private static WeatherResponse readResponse(JsonParser parser) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "id" -> response.setCityId(longInteger(parser));
+                case "name" -> response.setCityName(text(parser));
+                case "visibility" -> response.setVisibility(integer(parser));
+                case "dt" -> response.setObservedAt(longInteger(parser));
+                case "coord" -> readCoord(parser, response);
+                case "main" -> readMain(parser, response);
+                case "weather" -> readWeather(parser, response);
+                case "wind" -> readWind(parser, response);
+                case "clouds" -> readClouds(parser, response);
+                case "sys" -> readSys(parser, response);
+                default -> parser.skipChildren();
+            }
+        }
+        response.setTimestamp(LocalDateTime.now());
+        response.setFromCache(false);
+        response.setStale(false);
+        return response;
+    }
+
+    private static void readCoord(JsonParser parser, WeatherResponse response) throws IOException {
+        if (!isObject(parser)) {
+            return;
+        }
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "lat" -> response.setLatitude(decimal(parser));
+                case "lon" -> response.setLongitude(decimal(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readMain(JsonParser parser, WeatherResponse response) throws IOException {
+        if (!isObject(parser)) {
+            return;
+        }
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "temp" -> response.setTemperature(decimal(parser));
+                case "feels_like" -> response.setFeelsLike(decimal(parser));
+                case "temp_min" -> response.setTempMin(decimal(parser));
+                case "temp_max" -> response.setTempMax(decimal(parser));
+                case "humidity" -> response.setHumidity(integer(parser));
+                case "pressure" -> response.setPressure(integer(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Only the first (primary) condition is served; the rest are skipped.
+     */
+    private static void readWeather(JsonParser parser, WeatherResponse response) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                readCondition(parser, response);
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+    }
+
+    private static void readCondition(JsonParser parser, WeatherResponse response) throws IOException {
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "main" -> response.setWeatherMain(text(parser));
+                case "description" -> response.setWeatherDescription(text(parser));
+                case "icon" -> response.setWeatherIcon(text(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readWind(JsonParser parser, WeatherResponse response) throws IOException {
+        if (!isObject(parser)) {
+            return;
+        }
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "speed" -> response.setWindSpeed(decimal(parser));
+                case "deg" -> response.setWindDegree(integer(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readClouds(JsonParser parser, WeatherResponse response) throws IOException {
+        if (!isObject(parser)) {
+            return;
+        }
+        for (String field; (field = nextField(parser)) != null; ) {
+            if (field.equals("all")) {
+                response.setCloudiness(integer(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readSys(JsonParser parser, WeatherResponse response) throws IOException {
+        if (!isObject(parser)) {
+            return;
+        }
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "country" -> response.setCountry(text(parser));
+                case "sunrise" -> response.setSunrise(longInteger(parser));
+                case "sunset" -> response.setSunset(longInteger(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Moves to the next field's value and returns the field name, or null at the end of the object.
+     */
+    private static String nextField(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            return null;
+        }
+        String field = parser.currentName();
+        parser.nextToken();
+        return field;
+    }
+
+    /**
+     * True if the current value is an object; anything else (null, a scalar, an array) is skipped.
+     */
+    private static boolean isObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+    /**
+     * True if the current value is a non-null scalar; a nested object or array is skipped.
+     */
+    private static boolean hasScalar(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isStructStart()) {
+            parser.skipChildren();
+            return false;
+        }
+        return token != JsonToken.VALUE_NULL;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        return hasScalar(parser) ? parser.getValueAsString() : null;
+    }
+
+    private static Double decimal(JsonParser parser) throws IOException {
+        return hasScalar(parser) ? parser.getValueAsDouble() : null;
+    }
+
+    private static Integer integer(JsonParser parser) throws IOException {
+        return hasScalar(parser) ? parser.getValueAsInt() : null;
+    }
+
+    private static Long longInteger(JsonParser parser) throws IOException {
+        return hasScalar(parser) ? parser.getValueAsLong() : null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.rohit.weathersearch.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The replicas sharing the weather cache, and the hash ring over them.
+ *
+ * Members are this instance's own URL, the statically configured peers and,
+ * optionally, the base URLs listed in a discovery file (one per line, # for
+ * comments). The file is re-read periodically, so replicas can be added or
+ * removed without a restart; the ring is rebuilt only when the set changes.
+ * Every instance must see the same set to agree on owners; while they
+ * disagree, some keys are simply fetched upstream by more than one replica.
+ */
+public class ClusterMembership implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final String selfUrl;
+    private final List<String> staticPeers;
+    private final Path peersFile; // null unless configured
+    private final int virtualNodes;
+    private final ScheduledExecutorService fileWatcher;
+
+    private volatile ConsistentHashRing ring;
+
+    public ClusterMembership(String selfUrl, List<String> staticPeers, Path peersFile, int virtualNodes,
+                             Duration refreshInterval) {
+        this.selfUrl = normalize(selfUrl);
+        this.staticPeers = staticPeers.stream().map(ClusterMembership::normalize).filter(url -> !url.isEmpty()).toList();
+        this.peersFile = peersFile;
+        this.virtualNodes = virtualNodes;
+        reload();
+
+        if (peersFile != null) {
+            this.fileWatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cluster-peers-file");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long seconds = refreshInterval.toSeconds();
+            fileWatcher.scheduleWithFixedDelay(this::reload, seconds, seconds, TimeUnit.SECONDS);
+        } else {
+            this.fileWatcher = null;
+        }
+    }
+
+    /**
+     * The base URL of the member owning the key.
+     */
+    public String ownerOf(String key) {
+        return ring.ownerOf(key);
+    }
+
+    public boolean isSelf(String memberUrl) {
+        return selfUrl.equals(memberUrl);
+    }
+
+    public List<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    /**
+     * Rebuilds the ring if the member set changed. An unreadable discovery
+     * file keeps the current ring.
+     */
+    void reload() {
+        TreeSet<String> members = new TreeSet<>(staticPeers);
+        members.add(selfUrl);
+        if (peersFile != null) {
+            try {
+                for (String line : Files.readAllLines(peersFile)) {
+                    String url = normalize(line);
+                    if (!url.isEmpty() && !url.startsWith("#")) {
+                        members.add(url);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Unable to read cluster peers file {}, keeping {} members", peersFile,
+                        ring != null ? ring.getMembers().size() : members.size(), e);
+                if (ring != null) {
+                    return;
+                }
+            }
+        }
+
+        ConsistentHashRing current = ring;
+        if (current == null || !current.getMembers().equals(new ArrayList<>(members))) {
+            ring = new ConsistentHashRing(members, virtualNodes);
+            log.info("Cluster members: {}", members);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fileWatcher != null) {
+            fileWatcher.shutdownNow();
+        }
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
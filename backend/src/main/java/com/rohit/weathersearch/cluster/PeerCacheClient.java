@@ -0,0 +1,107 @@
+package com.rohit.weathersearch.cluster;
+
+import com.rohit.weathersearch.exception.CityNotFoundException;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asks the replica owning a city for it, instead of calling the weather API.
+ *
+ * The owner serves the city from its own cache, loading it on a miss; since
+ * its cache coalesces concurrent loads, every replica missing the same city
+ * at once costs a single upstream call. The owner answers with the weather
+ * as JSON and its Age, so the data keeps its original fetch time.
+ *
+ * When the replicas share a secret, every request carries it, and owners
+ * refuse requests without it.
+ */
+public class PeerCacheClient {
+
+    /**
+     * Owner endpoint, served by ClusterController.
+     */
+    public static final String PEER_PATH = "/internal/cluster/weather";
+
+    /**
+     * Header carrying the cluster's shared secret.
+     */
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private final ClusterMembership membership;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final String sharedSecret; // blank if the replicas share none
+
+    public PeerCacheClient(ClusterMembership membership, WebClient webClient, MeterRegistry meterRegistry,
+                           String sharedSecret) {
+        this.membership = membership;
+        this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+        this.sharedSecret = sharedSecret;
+    }
+
+    /**
+     * The base URL of the replica owning the cache key, or null if this instance owns it.
+     */
+    public String remoteOwnerOf(String cacheKey) {
+        String owner = membership.ownerOf(cacheKey);
+        return membership.isSelf(owner) ? null : owner;
+    }
+
+    /**
+     * Fetches a city from its owner.
+     *
+     * @throws CityNotFoundException if the owner (that is, the API) does not know the city
+     */
+    public Mono<PeerWeather> fetch(String ownerUrl, String cityName) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return webClient.get()
+                    .uri(ownerUrl + PEER_PATH + "?city={city}", cityName)
+                    .headers(headers -> {
+                        if (!sharedSecret.isBlank()) {
+                            headers.set(SECRET_HEADER, sharedSecret);
+                        }
+                    })
+                    .retrieve()
+                    .onStatus(
+                        status -> status.value() == HttpStatus.NOT_FOUND.value(),
+                        response -> Mono.error(new CityNotFoundException(cityName))
+                    )
+                    .toEntity(WeatherResponse.class)
+                    .filter(entity -> entity.getBody() != null)
+                    .map(entity -> new PeerWeather(entity.getBody(), fetchedAtMillis(entity.getHeaders())))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty response from peer " + ownerUrl)))
+                    .doOnSuccess(weather -> sample.stop(fetchTimer("success")))
+                    .doOnError(e -> sample.stop(fetchTimer(e instanceof CityNotFoundException ? "not_found" : "error")));
+        });
+    }
+
+    public ClusterMembership getMembership() {
+        return membership;
+    }
+
+    private Timer fetchTimer(String outcome) {
+        return Timer.builder("weather.peer.fetch")
+                .description("Time to fetch a city from the replica owning it")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long fetchedAtMillis(HttpHeaders headers) {
+        String age = headers.getFirst(HttpHeaders.AGE);
+        long ageSeconds = age != null ? Long.parseLong(age) : 0;
+        return System.currentTimeMillis() - ageSeconds * 1000;
+    }
+
+    /**
+     * A city served by its owner, with the time the owner fetched it from the API.
+     */
+    public record PeerWeather(WeatherResponse response, long fetchedAtMillis) {
+    }
+}
@@ -1,51 +1,234 @@
 package com.rohit.weathersearch.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rohit.weathersearch.cache.CompactWeather;
+import com.rohit.weathersearch.cache.MappedFileCache;
+import com.rohit.weathersearch.cache.PopularCityTracker;
+import com.rohit.weathersearch.cache.WeatherExpiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for cache management using Caffeine.
- * Implements caching strategy with maximum size and time-based expiry.
+ * Implements caching strategy with a maximum size or estimated heap weight and time-based expiry,
+ * optionally refreshing entries ahead of expiry (stale-while-revalidate).
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
     public static final String WEATHER_CACHE = "weatherCache";
+    public static final String GEO_WEATHER_CACHE = "geoWeatherCache";
+    public static final String NEGATIVE_CITY_CACHE = "negativeCityCache";
+    public static final String STALE_WEATHER_CACHE = "staleWeatherCache";
     
     @Value("${cache.max-size}")
     private int maxSize;
     
+    @Value("${cache.max-weight-mb:0}")
+    private int maxWeightMb;
+    
     @Value("${cache.expire-after-write-minutes}")
     private int expireAfterWriteMinutes;
     
+    @Value("${cache.refresh-ahead.enabled:false}")
+    private boolean refreshAheadEnabled;
+    
+    @Value("${cache.refresh-after-write-minutes:0}")
+    private int refreshAfterWriteMinutes;
+    
+    @Value("${cache.variable-ttl.enabled:false}")
+    private boolean variableTtlEnabled;
+    
+    @Value("${cache.variable-ttl.observation-interval-minutes:10}")
+    private int observationIntervalMinutes;
+    
+    @Value("${cache.variable-ttl.publish-delay-seconds:60}")
+    private int publishDelaySeconds;
+    
+    @Value("${cache.variable-ttl.min-seconds:60}")
+    private int variableTtlMinSeconds;
+    
+    @Value("${cache.variable-ttl.max-minutes:30}")
+    private int variableTtlMaxMinutes;
+    
+    @Value("${cache.variable-ttl.stable-multiplier:1.5}")
+    private double stableMultiplier;
+    
+    @Value("${cache.variable-ttl.volatile-multiplier:0.5}")
+    private double volatileMultiplier;
+    
+    @Value("${cache.negative.max-size:1000}")
+    private int negativeMaxSize;
+    
+    @Value("${cache.negative.ttl-seconds:60}")
+    private int negativeTtlSeconds;
+    
+    @Value("${cache.stale.max-size:10000}")
+    private int staleMaxSize;
+    
+    @Value("${cache.stale.max-age-hours:24}")
+    private int staleMaxAgeHours;
+    
+    @Value("${cache.l2.path:data/weather-l2.dat}")
+    private String l2Path;
+    
+    @Value("${cache.l2.max-size-mb:64}")
+    private int l2MaxSizeMb;
+    
+    @Value("${cache.l2.max-age-minutes:10}")
+    private int l2MaxAgeMinutes;
+    
+    @Value("${cache.l2.compaction-interval-seconds:60}")
+    private int l2CompactionIntervalSeconds;
+    
+    @Value("${cache.hot.top-k:200}")
+    private int hotTopK;
+    
+    @Value("${cache.hot.sketch-width:4096}")
+    private int hotSketchWidth;
+    
+    @Value("${cache.hot.sketch-depth:4}")
+    private int hotSketchDepth;
+    
+    /**
+     * Creates the expiry policy of the weather caches: a fixed TTL, or with
+     * cache.variable-ttl.enabled one that follows the upstream's observation
+     * cycle and the weather conditions of each entry.
+     */
+    @Bean
+    public WeatherExpiry weatherExpiry() {
+        return new WeatherExpiry(
+                variableTtlEnabled,
+                Duration.ofMinutes(expireAfterWriteMinutes),
+                Duration.ofMinutes(observationIntervalMinutes),
+                Duration.ofSeconds(publishDelaySeconds),
+                Duration.ofSeconds(variableTtlMinSeconds),
+                Duration.ofMinutes(variableTtlMaxMinutes),
+                stableMultiplier,
+                volatileMultiplier);
+    }
+    
     /**
      * Configures Caffeine cache with size limit and expiry time.
      * recordStats() enables cache statistics monitoring.
+     * 
+     * With cache.max-weight-mb set, each weather cache is bounded by the
+     * estimated heap its entries take instead of by entry count, so a cache
+     * of pre-serialized entries holds fewer of them than one without.
+     * 
+     * When refresh-ahead is enabled, entries older than the soft age are still
+     * served from cache while a background reload replaces them. The hard
+     * expiry remains the upper bound for how stale an entry can get. With
+     * variable TTL there is no fixed soft age: the service starts the reload
+     * when a read finds the entry within cache.variable-ttl.min-seconds of its
+     * expiry.
      */
     @Bean
-    public Caffeine<Object, Object> caffeineConfig() {
-        return Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+    public Caffeine<String, CompactWeather> caffeineConfig(WeatherExpiry weatherExpiry) {
+        Caffeine<String, CompactWeather> caffeine = Caffeine.newBuilder()
+                .expireAfter(weatherExpiry)
                 .recordStats(); // Enable statistics for monitoring cache performance
+        
+        if (maxWeightMb > 0) {
+            caffeine.maximumWeight(maxWeightMb * 1024L * 1024L)
+                    .weigher(CompactWeather::estimatedEntryBytes);
+        } else {
+            caffeine.maximumSize(maxSize);
+        }
+        
+        if (refreshAheadEnabled && !variableTtlEnabled) {
+            if (refreshAfterWriteMinutes <= 0 || refreshAfterWriteMinutes >= expireAfterWriteMinutes) {
+                throw new IllegalStateException(
+                        "cache.refresh-after-write-minutes must be between 1 and "
+                        + (expireAfterWriteMinutes - 1) + " when refresh-ahead is enabled");
+            }
+            caffeine.refreshAfterWrite(refreshAfterWriteMinutes, TimeUnit.MINUTES);
+        }
+        
+        return caffeine;
+    }
+    
+    /**
+     * Creates the negative cache of city keys the weather API answered with 404.
+     * Kept separate from the weather cache so unknown names (typos, bots,
+     * scanners) cannot evict real entries, and short-lived so a city that
+     * starts resolving upstream is picked up again quickly. Not managed by
+     * the cache manager, so its metrics are bound here.
+     */
+    @Bean
+    public Cache<String, Boolean> negativeCityCache(MeterRegistry meterRegistry) {
+        Cache<String, Boolean> cache = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, NEGATIVE_CITY_CACHE);
+    }
+    
+    /**
+     * Creates the store of last known weather, used when the weather API fails.
+     * Every successful load is written here too, keyed like the weather caches
+     * (geohash cells with a "geo:" prefix), and kept long past the normal TTL,
+     * so an outage can be answered with stale data instead of a 502. Entries
+     * still in the weather caches are the same objects, so only expired ones
+     * cost extra heap.
+     */
+    @Bean
+    public Cache<String, CompactWeather> staleWeatherCache(MeterRegistry meterRegistry) {
+        Cache<String, CompactWeather> cache = Caffeine.newBuilder()
+                .maximumSize(staleMaxSize)
+                .expireAfterWrite(staleMaxAgeHours, TimeUnit.HOURS)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, STALE_WEATHER_CACHE);
+    }
+    
+    /**
+     * Creates the optional on-disk second tier for the city weather cache.
+     * It survives restarts, so a fresh instance can serve recent entries
+     * instead of sending every first request upstream.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.l2.enabled", havingValue = "true")
+    public MappedFileCache weatherL2Cache() {
+        return new MappedFileCache(
+                Path.of(l2Path),
+                l2MaxSizeMb * 1024 * 1024,
+                Duration.ofMinutes(l2MaxAgeMinutes),
+                Duration.ofSeconds(l2CompactionIntervalSeconds));
+    }
+    
+    /**
+     * Creates the request counter that finds the most requested cities, used
+     * for warm-up snapshots and the hot cities endpoint.
+     */
+    @Bean
+    public PopularCityTracker popularCityTracker() {
+        return new PopularCityTracker(hotTopK, hotSketchWidth, hotSketchDepth);
     }
     
     /**
-     * Creates CacheManager bean with Caffeine configuration.
+     * Creates CacheManager bean.
+     * The weather caches need a loader for refresh-ahead, so they are built and
+     * registered by WeatherServiceImpl rather than created here.
      */
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(WEATHER_CACHE);
-        cacheManager.setCaffeine(caffeine);
+    public CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of()); // Only explicitly registered caches
         return cacheManager;
     }
 }
@@ -0,0 +1,88 @@
+package com.rohit.weathersearch.config;
+
+import com.rohit.weathersearch.cluster.ClusterMembership;
+import com.rohit.weathersearch.cluster.PeerCacheClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for the optional peer mode, in which replicas share
+ * their weather caches: every city is owned by one replica on a
+ * consistent-hash ring, and the others ask the owner before calling the API.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Value("${cluster.self-url:http://localhost:${server.port:8080}}")
+    private String selfUrl;
+
+    @Value("${cluster.peers:}")
+    private List<String> peers;
+
+    @Value("${cluster.peers-file:}")
+    private String peersFile;
+
+    @Value("${cluster.peers-file-refresh-seconds:10}")
+    private long peersFileRefreshSeconds;
+
+    @Value("${cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${cluster.peer-connect-timeout-ms:500}")
+    private int peerConnectTimeoutMs;
+
+    // Covers an owner's own upstream call, so a slow miss is not fetched twice
+    @Value("${cluster.peer-timeout-ms:6000}")
+    private long peerTimeoutMs;
+
+    @Value("${cluster.shared-secret:}")
+    private String sharedSecret;
+
+    /**
+     * Creates the member list and hash ring. The member count is exported
+     * as weather.cluster.members.
+     */
+    @Bean(destroyMethod = "close")
+    public ClusterMembership clusterMembership(MeterRegistry meterRegistry) {
+        ClusterMembership membership = new ClusterMembership(
+                selfUrl,
+                peers,
+                peersFile.isBlank() ? null : Path.of(peersFile),
+                virtualNodes,
+                Duration.ofSeconds(peersFileRefreshSeconds));
+        Gauge.builder("weather.cluster.members", membership, m -> m.getMembers().size())
+                .description("Replicas on the cache ownership ring, including this one")
+                .register(meterRegistry);
+        return membership;
+    }
+
+    /**
+     * Creates the client for owner lookups. Connecting fails fast, so a dead
+     * owner only delays a miss briefly before it goes to the API instead.
+     */
+    @Bean
+    public PeerCacheClient peerCacheClient(WebClient.Builder builder, ClusterMembership clusterMembership,
+                                           MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, peerConnectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(peerTimeoutMs));
+
+        WebClient webClient = builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new PeerCacheClient(clusterMembership, webClient, meterRegistry, sharedSecret);
+    }
+}
@@ -0,0 +1,213 @@
+package com.rohit.weathersearch.config;
+
+import com.rohit.weathersearch.client.AdaptiveConcurrencyLimiter;
+import com.rohit.weathersearch.client.CircuitBreaker;
+import com.rohit.weathersearch.client.CityBatchDispatcher;
+import com.rohit.weathersearch.client.OpenWeatherMapClient;
+import com.rohit.weathersearch.client.UpstreamPriority;
+import com.rohit.weathersearch.client.UpstreamQuotaManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration class for policies protecting the OpenWeatherMap API.
+ * Limits how many upstream calls can be in flight at once, keeps calls
+ * within the API keys' quota, and stops calling the API altogether while
+ * it is failing or too slow. Optionally groups city lookups into fewer calls.
+ */
+@Configuration
+public class UpstreamConfig {
+
+    @Value("${openweather.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${openweather.limiter.min-limit:2}")
+    private int minLimit;
+
+    @Value("${openweather.limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${openweather.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${openweather.limiter.latency-threshold-ms:2000}")
+    private long latencyThresholdMs;
+
+    @Value("${openweather.limiter.max-queue-size:100}")
+    private int maxQueueSize;
+
+    @Value("${openweather.limiter.max-queue-wait-ms:1000}")
+    private long maxQueueWaitMs;
+
+    // Defaults to the single openweather.api.key
+    @Value("${openweather.api.keys:${openweather.api.key}}")
+    private List<String> apiKeys;
+
+    // 0 = no quota
+    @Value("${openweather.quota.requests-per-minute:0}")
+    private double requestsPerMinute;
+
+    // 0 = one minute's worth of requests
+    @Value("${openweather.quota.burst:0}")
+    private int burst;
+
+    @Value("${openweather.quota.background-reserve:0.2}")
+    private double backgroundReserve;
+
+    @Value("${openweather.quota.interactive-max-wait-ms:1000}")
+    private long interactiveMaxWaitMs;
+
+    @Value("${openweather.quota.background-max-wait-ms:30000}")
+    private long backgroundMaxWaitMs;
+
+    @Value("${openweather.quota.max-queue-size:500}")
+    private int quotaMaxQueueSize;
+
+    @Value("${openweather.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${openweather.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${openweather.circuit-breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${openweather.circuit-breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${openweather.circuit-breaker.slow-call-threshold-ms:3000}")
+    private long slowCallThresholdMs;
+
+    @Value("${openweather.circuit-breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${openweather.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${openweather.group.enabled:false}")
+    private boolean groupEnabled;
+
+    @Value("${openweather.group.window-ms:20}")
+    private long groupWindowMs;
+
+    @Value("${openweather.group.max-size:20}")
+    private int groupMaxSize;
+
+    @Value("${openweather.group.max-known-cities:10000}")
+    private int groupMaxKnownCities;
+
+    /**
+     * Creates the AIMD concurrency limiter shared by all upstream calls.
+     * A max-queue-size of 0 makes calls beyond the limit fail fast.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter upstreamLimiter() {
+        return new AdaptiveConcurrencyLimiter(
+                initialLimit,
+                minLimit,
+                maxLimit,
+                backoffRatio,
+                Duration.ofMillis(latencyThresholdMs),
+                maxQueueSize,
+                Duration.ofMillis(maxQueueWaitMs));
+    }
+
+    /**
+     * Creates the circuit breaker shared by all upstream calls.
+     * Its state is exported as weather.upstream.circuit.state
+     * (0 closed, 1 open, 2 half-open) and calls it failed fast as
+     * weather.upstream.circuit.rejected.
+     */
+    @Bean
+    public CircuitBreaker upstreamCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                slowCallRateThreshold,
+                Duration.ofMillis(slowCallThresholdMs),
+                Duration.ofSeconds(openSeconds),
+                halfOpenCalls);
+        Gauge.builder("weather.upstream.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Upstream circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.upstream.circuit.rejected", circuitBreaker, CircuitBreaker::getRejectedCount)
+                .description("Upstream calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Creates the request budget shared by all upstream calls, one token
+     * bucket per API key. Remaining budget per key is exported as
+     * weather.upstream.quota.remaining, waiting calls per priority as
+     * weather.upstream.quota.queued, and calls rejected for lack of quota
+     * as weather.upstream.quota.rejected.
+     */
+    @Bean
+    public UpstreamQuotaManager upstreamQuotaManager(MeterRegistry meterRegistry) {
+        List<String> keys = apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty()).toList();
+        UpstreamQuotaManager quotaManager = new UpstreamQuotaManager(
+                keys,
+                requestsPerMinute,
+                burst > 0 ? burst : (int) Math.ceil(requestsPerMinute),
+                backgroundReserve,
+                Duration.ofMillis(interactiveMaxWaitMs),
+                Duration.ofMillis(backgroundMaxWaitMs),
+                quotaMaxQueueSize);
+        List<UpstreamQuotaManager.KeyBudget> budgets = quotaManager.getBudgets();
+        for (int i = 0; i < budgets.size(); i++) {
+            int index = i;
+            Gauge.builder("weather.upstream.quota.remaining", quotaManager,
+                            qm -> qm.getBudgets().get(index).remaining())
+                    .description("Requests left in the API key's quota bucket")
+                    .tag("key", budgets.get(i).id())
+                    .register(meterRegistry);
+        }
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            Gauge.builder("weather.upstream.quota.queued", quotaManager, qm -> qm.getQueued(priority))
+                    .description("Upstream calls waiting for API quota")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("weather.upstream.quota.rejected", quotaManager,
+                        UpstreamQuotaManager::getRejectedCount)
+                .description("Upstream calls rejected because no API quota was left in time")
+                .register(meterRegistry);
+        return quotaManager;
+    }
+
+    /**
+     * Creates the dispatcher that groups city lookups into OpenWeatherMap
+     * group calls when openweather.group.enabled is set. Group calls made are
+     * exported as weather.upstream.group.calls and the lookups they answered
+     * as weather.upstream.group.lookups; their ratio is the mean batch size.
+     */
+    @Bean
+    public CityBatchDispatcher cityBatchDispatcher(OpenWeatherMapClient weatherClient, MeterRegistry meterRegistry) {
+        CityBatchDispatcher dispatcher = new CityBatchDispatcher(
+                weatherClient,
+                groupEnabled,
+                Duration.ofMillis(groupWindowMs),
+                groupMaxSize,
+                groupMaxKnownCities);
+        FunctionCounter.builder("weather.upstream.group.calls", dispatcher, CityBatchDispatcher::getGroupCallCount)
+                .description("Upstream group calls, each answering several city lookups")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.upstream.group.lookups", dispatcher,
+                        CityBatchDispatcher::getBatchedLookupCount)
+                .description("City lookups answered by upstream group calls")
+                .register(meterRegistry);
+        Gauge.builder("weather.upstream.group.known.cities", dispatcher, CityBatchDispatcher::getKnownCityCount)
+                .description("Cities whose OpenWeatherMap id is known, so they can join group calls")
+                .register(meterRegistry);
+        return dispatcher;
+    }
+}
@@ -8,40 +8,116 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for WebClient used to make external API calls.
- * Configures timeouts and connection settings.
+ * Configures timeouts, the connection pool, DNS caching and compression.
  */
 @Configuration
 public class WebClientConfig {
-    
+
     @Value("${openweather.api.url}")
     private String baseUrl;
-    
+
     @Value("${openweather.api.timeout}")
     private int timeout;
-    
+
+    @Value("${openweather.http.pool.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${openweather.http.pool.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${openweather.http.pool.pending-acquire-timeout-ms:${openweather.api.timeout}}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${openweather.http.pool.max-idle-seconds:20}")
+    private long maxIdleSeconds;
+
+    @Value("${openweather.http.pool.max-life-seconds:300}")
+    private long maxLifeSeconds;
+
+    @Value("${openweather.http.pool.evict-in-background-seconds:30}")
+    private long evictInBackgroundSeconds;
+
+    @Value("${openweather.http.http2:false}")
+    private boolean http2;
+
+    @Value("${openweather.http.keep-alive:true}")
+    private boolean keepAlive;
+
+    @Value("${openweather.http.compression:true}")
+    private boolean compression;
+
+    @Value("${openweather.http.dns-cache.enabled:true}")
+    private boolean dnsCacheEnabled;
+
+    @Value("${openweather.http.dns-cache.max-ttl-seconds:300}")
+    private long dnsCacheMaxTtlSeconds;
+
+    @Value("${openweather.http.dns-cache.negative-ttl-seconds:5}")
+    private long dnsCacheNegativeTtlSeconds;
+
+    /**
+     * Creates the connection pool for OpenWeatherMap calls.
+     * Idle and old connections are evicted before the server or a load
+     * balancer drops them, so bursts do not hit dead sockets. Callers wait
+     * at most pending-acquire-timeout-ms for a connection once the pool is
+     * full. Pool metrics (active, idle, pending connections and acquire
+     * time) are exported as reactor.netty.connection.provider.*.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openWeatherConnectionProvider() {
+        return ConnectionProvider.builder("openweather")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeSeconds))
+                .evictInBackground(Duration.ofSeconds(evictInBackgroundSeconds))
+                .metrics(true)
+                .build();
+    }
+
     /**
      * Creates WebClient bean with timeout configurations.
      * This client will be used to call OpenWeatherMap API.
+     * Built from Spring Boot's builder so every call is recorded in the
+     * http.client.requests timer, tagged with HTTP status and outcome.
      */
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider openWeatherConnectionProvider) {
         // Configure HttpClient with timeouts
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = HttpClient.create(openWeatherConnectionProvider)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeout)
                 .responseTimeout(Duration.ofMillis(timeout))
-                .doOnConnected(conn -> 
+                .keepAlive(keepAlive)
+                .compress(compression)
+                .doOnConnected(conn ->
                     conn.addHandlerLast(new ReadTimeoutHandler(timeout, TimeUnit.MILLISECONDS))
                         .addHandlerLast(new WriteTimeoutHandler(timeout, TimeUnit.MILLISECONDS))
                 );
-        
-        return WebClient.builder()
+
+        // HTTP/2 is negotiated through TLS (ALPN); a plain http URL stays on HTTP/1.1
+        if (http2 && baseUrl.startsWith("https:")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        // Netty's asynchronous resolver with a cache bounded by max-ttl, instead of
+        // a blocking JDK lookup per new connection
+        if (dnsCacheEnabled) {
+            httpClient = httpClient.resolver(spec -> spec
+                    .cacheMaxTimeToLive(Duration.ofSeconds(dnsCacheMaxTtlSeconds))
+                    .cacheNegativeTimeToLive(Duration.ofSeconds(dnsCacheNegativeTtlSeconds)));
+        }
+
+        return builder
                 .baseUrl(baseUrl)
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
@@ -0,0 +1,87 @@
+package com.rohit.weathersearch.controller;
+
+import com.rohit.weathersearch.cluster.PeerCacheClient;
+import com.rohit.weathersearch.service.WeatherService;
+import jakarta.validation.constraints.NotBlank;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * REST Controller for requests between replicas in peer mode.
+ * Not meant for browsers; no CORS. Only registered with cluster.enabled.
+ * The endpoint must not be reachable from outside the cluster: firewall it,
+ * and set cluster.shared-secret so that only replicas can call it.
+ */
+@RestController
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+@Validated
+public class ClusterController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ClusterController.class);
+    
+    private final WeatherService weatherService;
+    private final byte[] sharedSecret; // empty if the replicas share none
+    
+    public ClusterController(WeatherService weatherService,
+                             @Value("${cluster.shared-secret:}") String sharedSecret) {
+        this.weatherService = weatherService;
+        this.sharedSecret = sharedSecret.getBytes(StandardCharsets.UTF_8);
+        if (sharedSecret.isBlank()) {
+            log.warn("cluster.shared-secret is not set: {} answers any caller", PeerCacheClient.PEER_PATH);
+        }
+    }
+    
+    /**
+     * GET /internal/cluster/weather?city={cityName}
+     * 
+     * Serves a city this replica owns to another replica. Answers like
+     * GET /api/weather, with the Age of the data, but without stale
+     * fallback: a 502 makes the asking replica call the API itself.
+     * A request without the shared secret, if one is set, gets 403.
+     * 
+     * @param city Name of the city
+     * @param secret The cluster's shared secret
+     * @return Mono of ResponseEntity containing the WeatherResponse JSON
+     */
+    @GetMapping(PeerCacheClient.PEER_PATH)
+    public Mono<ResponseEntity<byte[]>> getWeatherForPeer(
+            @RequestParam @NotBlank(message = "City name is required") String city,
+            @RequestHeader(value = PeerCacheClient.SECRET_HEADER, required = false) String secret) {
+        
+        log.debug("Received peer request for weather data: city={}", city);
+        
+        if (!isPeer(secret)) {
+            log.warn("Rejected peer request without a valid cluster secret: city={}", city);
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        
+        return weatherService.getCurrentWeatherForPeerAsync(city)
+                .map(weather -> ResponseEntity.ok()
+                        .header(HttpHeaders.AGE, Long.toString(weather.getAgeSeconds()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(weather.getJson()));
+    }
+    
+    private boolean isPeer(String secret) {
+        if (sharedSecret.length == 0) {
+            return true;
+        }
+        // Constant-time comparison, so response timing does not reveal the secret
+        return secret != null && MessageDigest.isEqual(sharedSecret, secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,15 +1,45 @@
 package com.rohit.weathersearch.controller;
 
+import com.rohit.weathersearch.config.CacheConfig;
+import com.rohit.weathersearch.model.dto.BatchWeatherRequest;
+import com.rohit.weathersearch.model.dto.BatchWeatherResponse;
 import com.rohit.weathersearch.model.dto.CacheStatsResponse;
-import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import com.rohit.weathersearch.model.dto.HotCitiesResponse;
+import com.rohit.weathersearch.model.dto.SerializedWeather;
+import com.rohit.weathersearch.model.dto.UpstreamStatsResponse;
 import com.rohit.weathersearch.service.WeatherService;
+import com.rohit.weathersearch.service.WeatherStreamHub;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST Controller for weather-related endpoints.
@@ -17,72 +47,322 @@ import org.springframework.web.bind.annotation.*;
  */
 @RestController
 @RequestMapping("/api/weather")
-@CrossOrigin(origins = "${cors.allowed-origins}")
+@CrossOrigin(origins = "${cors.allowed-origins}",
+        exposedHeaders = {"ETag", WeatherController.AGE_HEADER, WeatherController.CACHE_STATUS_HEADER,
+                HttpHeaders.WARNING})
 @Validated
 public class WeatherController {
     
     private static final Logger log = LoggerFactory.getLogger(WeatherController.class);
     
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+    static final String AGE_HEADER = "Age";
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    
     private final WeatherService weatherService;
+    private final WeatherStreamHub weatherStreamHub;
+    private final ApplicationAvailability availability;
+    
+    @Value("${stream.timeout-minutes:60}")
+    private long streamTimeoutMinutes;
     
-    public WeatherController(WeatherService weatherService) {
+    @Value("${stream.heartbeat-seconds:15}")
+    private long streamHeartbeatSeconds;
+    
+    public WeatherController(WeatherService weatherService, WeatherStreamHub weatherStreamHub,
+                             ApplicationAvailability availability) {
         this.weatherService = weatherService;
+        this.weatherStreamHub = weatherStreamHub;
+        this.availability = availability;
     }
     
     /**
      * GET /api/weather?city={cityName}
+     * GET /api/weather?lat={latitude}&lon={longitude}
      * 
-     * Retrieves current weather information for a given city.
+     * Retrieves current weather information for a given city or coordinate.
+     * Served asynchronously: the request thread is released while the
+     * upstream call is in flight. The body is written as pre-encoded JSON
+     * bytes; X-Cache tells whether it was a cache hit.
      * 
-     * @param city Name of the city (required, cannot be blank)
-     * @return ResponseEntity containing WeatherResponse
+     * Responses carry a strong ETag, Age (seconds since the data was fetched)
+     * and Cache-Control max-age (seconds left until the cache entry expires).
+     * A request whose If-None-Match matches the ETag gets 304 without a body.
+     * 
+     * While the weather API is failing, the last known value is served with
+     * X-Cache: STALE, a Warning 110 header, max-age 0 and its real Age;
+     * 502 is returned only when no value is known.
+     * 
+     * @param city Name of the city (cannot be blank; takes precedence over coordinates)
+     * @param lat Latitude in degrees, required with lon when no city is given
+     * @param lon Longitude in degrees, required with lat when no city is given
+     * @param ifNoneMatch Entity tags the client already holds, if any
+     * @return Mono of ResponseEntity containing the WeatherResponse JSON, or 304
      * 
      * Example: GET /api/weather?city=London
+     * Example: GET /api/weather?lat=51.51&lon=-0.13
      * Response: 200 OK with weather data
      */
     @GetMapping
-    public ResponseEntity<WeatherResponse> getWeather(
+    public Mono<ResponseEntity<byte[]>> getWeather(
+            @RequestParam(required = false) @Pattern(regexp = ".*\\S.*", message = "City name is required") String city,
+            @RequestParam(required = false) @DecimalMin("-90") @DecimalMax("90") Double lat,
+            @RequestParam(required = false) @DecimalMin("-180") @DecimalMax("180") Double lon,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws MissingServletRequestParameterException {
+        
+        if (city != null) {
+            log.info("Received request for weather data: city={}", city);
+            
+            return weatherService.getCurrentWeatherJsonAsync(city)
+                    .doOnNext(response -> log.info("Successfully retrieved weather for: {}", city))
+                    .map(weather -> toResponseEntity(weather, ifNoneMatch));
+        }
+        
+        if (lat == null && lon == null) {
+            throw new MissingServletRequestParameterException("city", "String");
+        }
+        if (lat == null || lon == null) {
+            throw new MissingServletRequestParameterException(lat == null ? "lat" : "lon", "Double");
+        }
+        
+        log.info("Received request for weather data: lat={}, lon={}", lat, lon);
+        
+        return weatherService.getCurrentWeatherByCoordinatesJsonAsync(lat, lon)
+                .doOnNext(response -> log.info("Successfully retrieved weather for: {},{}", lat, lon))
+                .map(weather -> toResponseEntity(weather, ifNoneMatch));
+    }
+    
+    /**
+     * GET /api/weather/stream?city={cityName}
+     * 
+     * Streams the weather of a city as Server-Sent Events. A "weather" event
+     * with the WeatherResponse JSON is sent at once and then whenever the
+     * reading changes. All streams of a city share one poller, so thousands of
+     * clients cost the same upstream calls as one. Comment lines are sent as
+     * heartbeats so closed connections are noticed; the stream ends after
+     * stream.timeout-minutes and EventSource clients reconnect by themselves.
+     * An unknown city gets an "error" event and the stream ends.
+     * 
+     * @param city Name of the city (required, cannot be blank)
+     * @return SseEmitter writing the events
+     * 
+     * Example: GET /api/weather/stream?city=London
+     * Response: 200 OK, text/event-stream
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWeather(
             @RequestParam @NotBlank(message = "City name is required") String city) {
         
-        log.info("Received request for weather data: city={}", city);
+        log.info("Opening weather stream for: {}", city);
         
-        WeatherResponse response = weatherService.getCurrentWeather(city);
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(streamTimeoutMinutes));
+        Flux<SseEmitter.SseEventBuilder> readings = weatherStreamHub.subscribe(city)
+                .map(json -> SseEmitter.event().name("weather").data(json, MediaType.APPLICATION_JSON));
+        Flux<SseEmitter.SseEventBuilder> heartbeats = Flux.interval(Duration.ofSeconds(streamHeartbeatSeconds))
+                .onBackpressureDrop()
+                .map(tick -> SseEmitter.event().comment("heartbeat"));
         
-        log.info("Successfully retrieved weather for: {}", city);
+        // Writes block on slow clients, so they happen off the shared poller thread
+        Disposable subscription = Flux.merge(readings, heartbeats)
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(event -> send(emitter, event),
+                        error -> endStream(emitter, error));
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return emitter;
+    }
+    
+    /**
+     * POST /api/weather/batch
+     * 
+     * Retrieves current weather for up to 200 cities in one request.
+     * Cached cities are answered directly; the rest are fetched in parallel.
+     * 
+     * @param request Body with the list of city names
+     * @return Mono of ResponseEntity containing BatchWeatherResponse
+     * 
+     * Example: POST /api/weather/batch {"cities": ["London", "Paris"]}
+     * Response: 200 OK with one result (weather or error) per city
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<BatchWeatherResponse>> getWeatherBatch(
+            @Valid @RequestBody BatchWeatherRequest request) {
+        
+        log.info("Received batch request for {} cities", request.getCities().size());
+        
+        return weatherService.getCurrentWeatherBatch(request.getCities())
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * GET /api/weather/suggest?q={query}&limit={limit}
+     * 
+     * Suggests city names for autocomplete from the offline gazetteer.
+     * Tolerates one typo once the query has three or more characters.
+     * 
+     * @param q Partial city name (required, cannot be blank)
+     * @param limit Maximum number of suggestions (1-20, default 10)
+     * @return ResponseEntity containing the list of CitySuggestion
+     * 
+     * Example: GET /api/weather/suggest?q=lon
+     * Response: 200 OK with matching cities, most populous first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CitySuggestion>> suggestCities(
+            @RequestParam @NotBlank(message = "Query is required") String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(20) int limit) {
         
-        return ResponseEntity.ok(response);
+        log.debug("Received suggestion request: q={}", q);
+        
+        return ResponseEntity.ok(weatherService.suggestCities(q, limit));
     }
     
     /**
-     * GET /api/weather/cache/stats
+     * GET /api/weather/cache/stats?cache={cacheName}
      * 
      * Retrieves cache performance statistics.
      * Useful for monitoring and debugging cache behavior.
      * 
+     * @param cache Cache to report on: weatherCache (default) or geoWeatherCache
      * @return ResponseEntity containing CacheStatsResponse
      * 
-     * Example: GET /api/weather/cache/stats
+     * Example: GET /api/weather/cache/stats?cache=geoWeatherCache
      * Response: 200 OK with cache statistics
      */
     @GetMapping("/cache/stats")
-    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+    public ResponseEntity<CacheStatsResponse> getCacheStats(
+            @RequestParam(defaultValue = CacheConfig.WEATHER_CACHE) String cache) {
         
-        log.debug("Received request for cache statistics");
+        log.debug("Received request for cache statistics: {}", cache);
         
-        CacheStatsResponse stats = weatherService.getCacheStatistics();
+        CacheStatsResponse stats = weatherService.getCacheStatistics(cache);
         
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * GET /api/weather/cache/hot?limit={limit}
+     * 
+     * Lists the most requested cities with their estimated request counts,
+     * share of all requests, and whether and at what heap cost they are
+     * cached. The cumulative share of the top N shows how much traffic a
+     * cache or warm-up list of N cities would cover.
+     * 
+     * @param limit Maximum number of cities (1-200)
+     * @return ResponseEntity containing HotCitiesResponse
+     * 
+     * Example: GET /api/weather/cache/hot?limit=20
+     */
+    @GetMapping("/cache/hot")
+    public ResponseEntity<HotCitiesResponse> getHotCities(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(200) int limit) {
+        
+        log.debug("Received request for hot cities: limit={}", limit);
+        
+        return ResponseEntity.ok(weatherService.getHotCities(limit));
+    }
+    
+    /**
+     * GET /api/weather/upstream/stats
+     * 
+     * Retrieves upstream API statistics: the current adaptive concurrency
+     * limit, calls in flight and queued, and calls rejected by the limiter.
+     * 
+     * @return ResponseEntity containing UpstreamStatsResponse
+     */
+    @GetMapping("/upstream/stats")
+    public ResponseEntity<UpstreamStatsResponse> getUpstreamStats() {
+        
+        log.debug("Received request for upstream statistics");
+        
+        return ResponseEntity.ok(weatherService.getUpstreamStatistics());
+    }
+    
     /**
      * GET /api/weather/health
      * 
      * Simple health check endpoint.
+     * Reports 503 until the instance is ready, e.g. while the cache warms up.
      * 
      * @return ResponseEntity with health status
      */
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Weather Service is starting up");
+        }
         return ResponseEntity.ok("Weather Service is running!");
     }
-}
\ No newline at end of file
+    
+    /**
+     * Writes the encoded weather as is; Jackson is not involved. Answers 304
+     * with the same caching headers when the client already has this body.
+     */
+    private ResponseEntity<byte[]> toResponseEntity(SerializedWeather weather, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(weather.getEtag());
+        headers.setCacheControl(CacheControl.maxAge(weather.getMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic());
+        headers.set(AGE_HEADER, Long.toString(weather.getAgeSeconds()));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus(weather));
+        if (weather.isStale()) {
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        }
+        
+        if (matchesAny(ifNoneMatch, weather.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(weather.getJson());
+    }
+    
+    /**
+     * A failed write means the client went away. The container then ends the
+     * request, and the emitter's callbacks cancel the subscription.
+     */
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            log.debug("Weather stream client disconnected: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Tells the client why its stream ends, e.g. an unknown city.
+     */
+    private static void endStream(SseEmitter emitter, Throwable error) {
+        send(emitter, SseEmitter.event().name("error").data(error.getMessage()));
+        emitter.complete();
+    }
+    
+    private static String cacheStatus(SerializedWeather weather) {
+        if (weather.isStale()) {
+            return "STALE";
+        }
+        return weather.isFromCache() ? "HIT" : "MISS";
+    }
+    
+    /**
+     * If-None-Match uses the weak comparison: W/ prefixes are ignored.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,13 @@
+package com.rohit.weathersearch.exception;
+
+
+/**
+ * Custom exception thrown when an upstream call is not attempted
+ * because the circuit breaker for the external API is open.
+ */
+public class CircuitOpenException extends ExternalApiException {
+    
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
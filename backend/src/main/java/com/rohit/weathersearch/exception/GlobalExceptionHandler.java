@@ -3,6 +3,7 @@ package com.rohit.weathersearch.exception;
 
 import com.rohit.weathersearch.model.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.stream.Collectors;
@@ -65,6 +67,49 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_GATEWAY);
     }
     
+    /**
+     * Handles CircuitOpenException.
+     * Only reached when no stale value could be served; still a 502, but
+     * expected during an outage, so it is logged without a stack trace.
+     */
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpenException(
+            CircuitOpenException ex,
+            HttpServletRequest request) {
+        
+        log.warn("Upstream circuit open: {}", ex.getMessage());
+        
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.BAD_GATEWAY.value(),
+                "External API Error",
+                "Unable to fetch weather data. Please try again later.",
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(error, HttpStatus.BAD_GATEWAY);
+    }
+    
+    /**
+     * Handles UpstreamBusyException.
+     * The request was shed locally, so the caller can retry shortly.
+     */
+    @ExceptionHandler(UpstreamBusyException.class)
+    public ResponseEntity<ErrorResponse> handleUpstreamBusyException(
+            UpstreamBusyException ex, 
+            HttpServletRequest request) {
+        
+        log.warn("Upstream busy: {}", ex.getMessage());
+        
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Weather service is busy. Please try again shortly.",
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
     /**
      * Handles validation errors (missing or invalid request parameters).
      */
@@ -111,6 +156,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handles constraint violations on request parameters (e.g. coordinates out of range).
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(
+            ConstraintViolationException ex,
+            HttpServletRequest request) {
+        
+        String errorMessage = ex.getConstraintViolations()
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining(", "));
+        
+        log.error("Constraint violation: {}", errorMessage);
+        
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Error",
+                errorMessage,
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+    
     /**
      * Handles type mismatch errors.
      */
@@ -131,6 +201,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handles clients that disconnected while their response was being
+     * written, e.g. a closed weather stream. Nothing can be sent back.
+     */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientDisconnected(AsyncRequestNotUsableException ex) {
+        log.debug("Client disconnected: {}", ex.getMessage());
+    }
+    
     /**
      * Handles all other unexpected exceptions.
      */
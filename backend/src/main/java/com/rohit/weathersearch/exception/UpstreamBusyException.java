@@ -0,0 +1,14 @@
+package com.rohit.weathersearch.exception;
+
+
+/**
+ * Custom exception thrown when an upstream call is shed rather than failed:
+ * rejected locally by the concurrency limiter or for lack of API quota, or
+ * answered with 429 by the external API.
+ */
+public class UpstreamBusyException extends ExternalApiException {
+    
+    public UpstreamBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,170 @@
+package com.rohit.weathersearch.gazetteer;
+
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Offline city gazetteer loaded once at startup.
+ * Answers autocomplete queries from a prefix trie without any upstream call,
+ * and tells whether a city name is known before the API is asked about it.
+ */
+@Component
+public class CityGazetteer {
+
+    private static final Logger log = LoggerFactory.getLogger(CityGazetteer.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Prefixes shorter than this are too ambiguous for fuzzy matching
+    private static final int FUZZY_MIN_LENGTH = 3;
+    private static final int FUZZY_MAX_EDITS = 1;
+    private static final int TOP_K = 20;
+
+    private final CityPrefixTrie trie;
+
+    // Entry id (population rank) -> city data
+    private final String[] names;
+    private final String[] countries;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private final long loadTimeMillis;
+
+    public CityGazetteer(@Value("${gazetteer.location:classpath:gazetteer/cities.tsv}") Resource location) {
+        long start = System.nanoTime();
+
+        List<String[]> rows = readRows(location);
+        // Most populous first, so entry ids double as suggestion ranks
+        rows.sort(Comparator.comparingLong((String[] row) -> Long.parseLong(row[4])).reversed());
+
+        int size = rows.size();
+        this.names = new String[size];
+        this.countries = new String[size];
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        List<String> keys = new ArrayList<>(size);
+
+        for (int id = 0; id < size; id++) {
+            String[] row = rows.get(id);
+            names[id] = row[0];
+            countries[id] = row[1];
+            latitudes[id] = Double.parseDouble(row[2]);
+            longitudes[id] = Double.parseDouble(row[3]);
+            keys.add(normalize(row[0]));
+        }
+
+        this.trie = CityPrefixTrie.build(keys, TOP_K);
+        this.loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Loaded gazetteer: {} cities, {} trie nodes, ~{} KB index, in {} ms",
+                size, trie.nodeCount(), trie.estimatedBytes() / 1024, loadTimeMillis);
+    }
+
+    /**
+     * Suggests cities whose name starts with the query, most populous first.
+     * If the exact prefix yields fewer than limit results, the remainder is
+     * filled with names one edit away from the query (typos).
+     */
+    public List<CitySuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        int[] ids = trie.prefixMatches(prefix, limit);
+
+        List<CitySuggestion> suggestions = new ArrayList<>(limit);
+        for (int id : ids) {
+            suggestions.add(toSuggestion(id));
+        }
+
+        if (ids.length < limit && prefix.length() >= FUZZY_MIN_LENGTH) {
+            // Exact prefix matches stay first; typo matches fill the remaining slots
+            int[] fuzzyIds = trie.fuzzyPrefixMatches(prefix, FUZZY_MAX_EDITS, limit);
+            for (int i = 0; i < fuzzyIds.length && suggestions.size() < limit; i++) {
+                if (!contains(ids, fuzzyIds[i])) {
+                    suggestions.add(toSuggestion(fuzzyIds[i]));
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Whether the gazetteer knows this city. Accepts the "City,CountryCode"
+     * form the weather API also accepts, matching on the city part.
+     */
+    public boolean isKnownCity(String cityName) {
+        int comma = cityName.indexOf(',');
+        String city = comma >= 0 ? cityName.substring(0, comma) : cityName;
+        return trie.contains(normalize(city));
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    public long getIndexBytes() {
+        return trie.estimatedBytes();
+    }
+
+    private CitySuggestion toSuggestion(int id) {
+        return new CitySuggestion(names[id], countries[id], latitudes[id], longitudes[id]);
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lowercases, strips accents and collapses whitespace, so "São  Paulo" matches "sao paulo".
+     */
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(stripped).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String[]> readRows(Resource location) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] row = line.split("\t");
+                if (row.length != 5) {
+                    throw new IllegalStateException("Malformed gazetteer line: " + line);
+                }
+                rows.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load gazetteer from " + location, e);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,282 @@
+package com.rohit.weathersearch.gazetteer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable prefix trie over normalized city names, stored in flat arrays.
+ *
+ * Nodes use a first-child / next-sibling layout, so each node costs a char
+ * and two ints instead of an object with a child map. Every node also keeps
+ * the ids of the best-ranked entries in its subtree, which makes a prefix
+ * lookup a walk down the trie followed by a slice copy.
+ *
+ * Entry ids are ranks: the caller inserts keys best-first, and a lower id
+ * always means a better suggestion.
+ */
+public final class CityPrefixTrie {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final boolean[] terminal;
+
+    // Top entries of node n are topData[topStart[n] .. topStart[n + 1])
+    private final int[] topStart;
+    private final int[] topData;
+
+    private CityPrefixTrie(char[] labels, int[] firstChild, int[] nextSibling, boolean[] terminal,
+                           int[] topStart, int[] topData) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.terminal = terminal;
+        this.topStart = topStart;
+        this.topData = topData;
+    }
+
+    /**
+     * Builds a trie from keys ordered best-first; the key at index i gets entry id i.
+     *
+     * @param keysByRank normalized keys, best-ranked first
+     * @param topK       how many entry ids each node keeps for suggestions
+     */
+    public static CityPrefixTrie build(List<String> keysByRank, int topK) {
+        Builder builder = new Builder(topK);
+        for (int id = 0; id < keysByRank.size(); id++) {
+            builder.insert(keysByRank.get(id), id);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Whether the exact key was inserted.
+     */
+    public boolean contains(String key) {
+        int node = find(key);
+        return node != NONE && terminal[node];
+    }
+
+    /**
+     * Best-ranked entry ids whose key starts with the prefix.
+     */
+    public int[] prefixMatches(String prefix, int limit) {
+        int node = find(prefix);
+        if (node == NONE) {
+            return new int[0];
+        }
+        int start = topStart[node];
+        int count = Math.min(limit, topStart[node + 1] - start);
+        return Arrays.copyOfRange(topData, start, start + count);
+    }
+
+    /**
+     * Best-ranked entry ids whose key starts with a string within maxEdits
+     * (Levenshtein distance) of the prefix.
+     */
+    public int[] fuzzyPrefixMatches(String prefix, int maxEdits, int limit) {
+        int[] firstRow = new int[prefix.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+
+        IdSet matches = new IdSet(topData.length);
+        if (firstRow[prefix.length()] <= maxEdits) {
+            matches.addAll(ROOT);
+        } else {
+            for (int child = firstChild[ROOT]; child != NONE; child = nextSibling[child]) {
+                collectFuzzy(child, prefix, firstRow, maxEdits, matches);
+            }
+        }
+        return matches.smallest(limit);
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    /**
+     * Approximate heap used by the index arrays, in bytes.
+     */
+    public long estimatedBytes() {
+        int arrayHeader = 16;
+        return (long) labels.length * Character.BYTES
+                + (long) firstChild.length * Integer.BYTES
+                + (long) nextSibling.length * Integer.BYTES
+                + terminal.length
+                + (long) topStart.length * Integer.BYTES
+                + (long) topData.length * Integer.BYTES
+                + 6L * arrayHeader;
+    }
+
+    private int find(String key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node;
+    }
+
+    private int child(int node, char label) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labels[child] == label) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Depth-first walk computing one Levenshtein row per node. A node whose
+     * path is within maxEdits of the whole prefix contributes its subtree's
+     * top entries; branches whose best cell already exceeds maxEdits are pruned.
+     */
+    private void collectFuzzy(int node, String prefix, int[] previousRow, int maxEdits, IdSet matches) {
+        int columns = prefix.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+
+        for (int i = 1; i < columns; i++) {
+            int substitution = previousRow[i - 1] + (prefix.charAt(i - 1) == labels[node] ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), substitution);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        if (row[columns - 1] <= maxEdits) {
+            matches.addAll(node);
+            return;
+        }
+        if (rowMin > maxEdits) {
+            return;
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            collectFuzzy(child, prefix, row, maxEdits, matches);
+        }
+    }
+
+    /**
+     * Small set of entry ids collected from several nodes.
+     */
+    private final class IdSet {
+        private final int[] ids;
+        private int size;
+
+        private IdSet(int capacity) {
+            this.ids = new int[capacity];
+        }
+
+        private void addAll(int node) {
+            for (int i = topStart[node]; i < topStart[node + 1]; i++) {
+                ids[size++] = topData[i];
+            }
+        }
+
+        private int[] smallest(int limit) {
+            int[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            int[] result = new int[Math.min(limit, sorted.length)];
+            int count = 0;
+            for (int i = 0; i < sorted.length && count < result.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    result[count++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    /**
+     * Growable arrays used while inserting; flattened into the immutable trie.
+     */
+    private static final class Builder {
+        private final int topK;
+        private char[] labels = new char[256];
+        private int[] firstChild = new int[256];
+        private int[] nextSibling = new int[256];
+        private boolean[] terminal = new boolean[256];
+        private int[][] top = new int[256][];
+        private int[] topCount = new int[256];
+        private int size;
+
+        private Builder(int topK) {
+            this.topK = topK;
+            newNode('\0');
+        }
+
+        private void insert(String key, int id) {
+            int node = ROOT;
+            addTop(node, id);
+            for (int i = 0; i < key.length(); i++) {
+                char label = key.charAt(i);
+                int child = findChild(node, label);
+                if (child == NONE) {
+                    child = newNode(label);
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+                addTop(node, id);
+            }
+            terminal[node] = true;
+        }
+
+        private int findChild(int node, char label) {
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (labels[child] == label) {
+                    return child;
+                }
+            }
+            return NONE;
+        }
+
+        // Ids arrive in rank order, so the first topK seen are the best
+        private void addTop(int node, int id) {
+            if (topCount[node] < topK) {
+                if (top[node] == null) {
+                    top[node] = new int[topK];
+                }
+                top[node][topCount[node]++] = id;
+            }
+        }
+
+        private int newNode(char label) {
+            if (size == labels.length) {
+                int capacity = size * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+                top = Arrays.copyOf(top, capacity);
+                topCount = Arrays.copyOf(topCount, capacity);
+            }
+            labels[size] = label;
+            firstChild[size] = NONE;
+            nextSibling[size] = NONE;
+            return size++;
+        }
+
+        private CityPrefixTrie build() {
+            int[] topStart = new int[size + 1];
+            for (int node = 0; node < size; node++) {
+                topStart[node + 1] = topStart[node] + topCount[node];
+            }
+            int[] topData = new int[topStart[size]];
+            for (int node = 0; node < size; node++) {
+                if (topCount[node] > 0) {
+                    System.arraycopy(top[node], 0, topData, topStart[node], topCount[node]);
+                }
+            }
+            return new CityPrefixTrie(
+                    Arrays.copyOf(labels, size),
+                    Arrays.copyOf(firstChild, size),
+                    Arrays.copyOf(nextSibling, size),
+                    Arrays.copyOf(terminal, size),
+                    topStart,
+                    topData);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.rohit.weathersearch.model.dto;
+
+/**
+ * DTO for the remaining request budget of one OpenWeatherMap API key.
+ * Keys are identified by their position in the pool, never by value.
+ */
+public class ApiKeyQuota {
+    
+    private String id;
+    private Integer remaining;
+    private Integer capacity;
+    
+    // Constructors
+    public ApiKeyQuota() {
+    }
+    
+    public ApiKeyQuota(String id, Integer remaining, Integer capacity) {
+        this.id = id;
+        this.remaining = remaining;
+        this.capacity = capacity;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Integer getRemaining() {
+        return remaining;
+    }
+    
+    public void setRemaining(Integer remaining) {
+        this.remaining = remaining;
+    }
+    
+    public Integer getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rohit.weathersearch.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for fetching weather for several cities at once.
+ */
+public class BatchWeatherRequest {
+    
+    public static final int MAX_CITIES = 200;
+    
+    @NotEmpty(message = "At least one city is required")
+    @Size(max = MAX_CITIES, message = "At most " + MAX_CITIES + " cities per request")
+    private List<@NotBlank(message = "City name is required") String> cities;
+    
+    // Constructors
+    public BatchWeatherRequest() {
+    }
+    
+    public BatchWeatherRequest(List<String> cities) {
+        this.cities = cities;
+    }
+    
+    // Getters and Setters
+    public List<String> getCities() {
+        return cities;
+    }
+    
+    public void setCities(List<String> cities) {
+        this.cities = cities;
+    }
+}
@@ -0,0 +1,49 @@
+package com.rohit.weathersearch.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO for batch weather lookups.
+ * Results are in request order; cache counts are per distinct city.
+ */
+public class BatchWeatherResponse {
+    
+    private List<BatchWeatherResult> results;
+    private Integer cacheHits;
+    private Integer cacheMisses;
+    
+    // Constructors
+    public BatchWeatherResponse() {
+    }
+    
+    public BatchWeatherResponse(List<BatchWeatherResult> results, Integer cacheHits, Integer cacheMisses) {
+        this.results = results;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+    
+    // Getters and Setters
+    public List<BatchWeatherResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<BatchWeatherResult> results) {
+        this.results = results;
+    }
+    
+    public Integer getCacheHits() {
+        return cacheHits;
+    }
+    
+    public void setCacheHits(Integer cacheHits) {
+        this.cacheHits = cacheHits;
+    }
+    
+    public Integer getCacheMisses() {
+        return cacheMisses;
+    }
+    
+    public void setCacheMisses(Integer cacheMisses) {
+        this.cacheMisses = cacheMisses;
+    }
+}
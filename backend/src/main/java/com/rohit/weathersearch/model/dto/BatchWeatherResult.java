@@ -0,0 +1,47 @@
+package com.rohit.weathersearch.model.dto;
+
+/**
+ * Outcome for one city of a batch request.
+ * Exactly one of weather or error is set.
+ */
+public class BatchWeatherResult {
+    
+    private String city;
+    private WeatherResponse weather;
+    private ErrorResponse error;
+    
+    // Constructors
+    public BatchWeatherResult() {
+    }
+    
+    public BatchWeatherResult(String city, WeatherResponse weather, ErrorResponse error) {
+        this.city = city;
+        this.weather = weather;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public String getCity() {
+        return city;
+    }
+    
+    public void setCity(String city) {
+        this.city = city;
+    }
+    
+    public WeatherResponse getWeather() {
+        return weather;
+    }
+    
+    public void setWeather(WeatherResponse weather) {
+        this.weather = weather;
+    }
+    
+    public ErrorResponse getError() {
+        return error;
+    }
+    
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
@@ -15,6 +15,10 @@ public class CacheStatsResponse {
     private Double hitRate;
     private Double missRate;
     private Long estimatedSize;
+    private Long negativeHitCount;
+    private Long negativeMissCount;
+    private Long weightedSizeBytes;
+    private Long maximumWeightBytes;
     
     // Constructors
     public CacheStatsResponse() {
@@ -115,4 +119,36 @@ public class CacheStatsResponse {
     public void setEstimatedSize(Long estimatedSize) {
         this.estimatedSize = estimatedSize;
     }
+    
+    public Long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+    
+    public void setNegativeHitCount(Long negativeHitCount) {
+        this.negativeHitCount = negativeHitCount;
+    }
+    
+    public Long getNegativeMissCount() {
+        return negativeMissCount;
+    }
+    
+    public void setNegativeMissCount(Long negativeMissCount) {
+        this.negativeMissCount = negativeMissCount;
+    }
+    
+    public Long getWeightedSizeBytes() {
+        return weightedSizeBytes;
+    }
+    
+    public void setWeightedSizeBytes(Long weightedSizeBytes) {
+        this.weightedSizeBytes = weightedSizeBytes;
+    }
+    
+    public Long getMaximumWeightBytes() {
+        return maximumWeightBytes;
+    }
+    
+    public void setMaximumWeightBytes(Long maximumWeightBytes) {
+        this.maximumWeightBytes = maximumWeightBytes;
+    }
 }
\ No newline at end of file
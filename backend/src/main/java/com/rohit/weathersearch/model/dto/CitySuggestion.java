@@ -0,0 +1,56 @@
+package com.rohit.weathersearch.model.dto;
+
+/**
+ * DTO for a city name suggestion from the bundled gazetteer.
+ */
+public class CitySuggestion {
+    
+    private String name;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    
+    // Constructors
+    public CitySuggestion() {
+    }
+    
+    public CitySuggestion(String name, String country, Double latitude, Double longitude) {
+        this.name = name;
+        this.country = country;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getCountry() {
+        return country;
+    }
+    
+    public void setCountry(String country) {
+        this.country = country;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
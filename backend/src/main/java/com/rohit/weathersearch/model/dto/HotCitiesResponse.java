@@ -0,0 +1,39 @@
+package com.rohit.weathersearch.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the most requested cities.
+ * Shows how concentrated demand is, to size the cache and pick warm-up lists.
+ */
+public class HotCitiesResponse {
+    
+    private Long totalRequests;
+    private List<HotCity> cities;
+    
+    // Constructors
+    public HotCitiesResponse() {
+    }
+    
+    public HotCitiesResponse(Long totalRequests, List<HotCity> cities) {
+        this.totalRequests = totalRequests;
+        this.cities = cities;
+    }
+    
+    // Getters and Setters
+    public Long getTotalRequests() {
+        return totalRequests;
+    }
+    
+    public void setTotalRequests(Long totalRequests) {
+        this.totalRequests = totalRequests;
+    }
+    
+    public List<HotCity> getCities() {
+        return cities;
+    }
+    
+    public void setCities(List<HotCity> cities) {
+        this.cities = cities;
+    }
+}
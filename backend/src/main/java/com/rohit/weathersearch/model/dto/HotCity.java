@@ -0,0 +1,79 @@
+package com.rohit.weathersearch.model.dto;
+
+/**
+ * DTO for one of the most requested cities.
+ * Counts are estimates that may be slightly high, never low, and halve
+ * every warm-up snapshot so they reflect recent demand.
+ */
+public class HotCity {
+    
+    private String city;
+    private Long estimatedRequests;
+    private Double share;
+    private Double cumulativeShare;
+    private Boolean cached;
+    private Integer estimatedBytes;
+    
+    // Constructors
+    public HotCity() {
+    }
+    
+    public HotCity(String city, Long estimatedRequests, Double share, Double cumulativeShare,
+                   Boolean cached, Integer estimatedBytes) {
+        this.city = city;
+        this.estimatedRequests = estimatedRequests;
+        this.share = share;
+        this.cumulativeShare = cumulativeShare;
+        this.cached = cached;
+        this.estimatedBytes = estimatedBytes;
+    }
+    
+    // Getters and Setters
+    public String getCity() {
+        return city;
+    }
+    
+    public void setCity(String city) {
+        this.city = city;
+    }
+    
+    public Long getEstimatedRequests() {
+        return estimatedRequests;
+    }
+    
+    public void setEstimatedRequests(Long estimatedRequests) {
+        this.estimatedRequests = estimatedRequests;
+    }
+    
+    public Double getShare() {
+        return share;
+    }
+    
+    public void setShare(Double share) {
+        this.share = share;
+    }
+    
+    public Double getCumulativeShare() {
+        return cumulativeShare;
+    }
+    
+    public void setCumulativeShare(Double cumulativeShare) {
+        this.cumulativeShare = cumulativeShare;
+    }
+    
+    public Boolean getCached() {
+        return cached;
+    }
+    
+    public void setCached(Boolean cached) {
+        this.cached = cached;
+    }
+    
+    public Integer getEstimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    public void setEstimatedBytes(Integer estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rohit.weathersearch.model.dto;
+
+/**
+ * A weather response already encoded as UTF-8 JSON, ready to be written
+ * to the client as is, with its entity tag and HTTP caching metadata.
+ * Per-request metadata is kept outside the body so the bytes can be shared.
+ */
+public class SerializedWeather {
+    
+    private final byte[] json;
+    private final String etag;
+    private final boolean fromCache;
+    private final long ageSeconds;
+    private final long maxAgeSeconds;
+    private final boolean stale;
+    
+    // Constructors
+    public SerializedWeather(byte[] json, String etag, boolean fromCache, long ageSeconds, long maxAgeSeconds,
+                             boolean stale) {
+        this.json = json;
+        this.etag = etag;
+        this.fromCache = fromCache;
+        this.ageSeconds = ageSeconds;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.stale = stale;
+    }
+    
+    // Getters
+    public byte[] getJson() {
+        return json;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    public boolean isFromCache() {
+        return fromCache;
+    }
+    
+    /**
+     * Seconds since the data was fetched from the weather API.
+     */
+    public long getAgeSeconds() {
+        return ageSeconds;
+    }
+    
+    /**
+     * Seconds the data stays fresh, i.e. the remaining cache TTL.
+     */
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+    
+    /**
+     * True when the data is past its TTL and served only because the weather API is failing.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -0,0 +1,118 @@
+package com.rohit.weathersearch.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO for upstream (OpenWeatherMap) call statistics.
+ * Shows how the adaptive concurrency limiter, the circuit breaker and
+ * the API key quota are behaving.
+ */
+public class UpstreamStatsResponse {
+    
+    private Integer concurrencyLimit;
+    private Integer inFlight;
+    private Integer queued;
+    private Long rejectedCount;
+    private String circuitState;
+    private Long circuitRejectedCount;
+    private List<ApiKeyQuota> apiKeys;
+    private Integer quotaQueuedInteractive;
+    private Integer quotaQueuedBackground;
+    private Long quotaRejectedCount;
+    
+    // Constructors
+    public UpstreamStatsResponse() {
+    }
+    
+    public UpstreamStatsResponse(Integer concurrencyLimit, Integer inFlight,
+                                 Integer queued, Long rejectedCount,
+                                 String circuitState, Long circuitRejectedCount) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.rejectedCount = rejectedCount;
+        this.circuitState = circuitState;
+        this.circuitRejectedCount = circuitRejectedCount;
+    }
+    
+    // Getters and Setters
+    public Integer getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+    
+    public void setConcurrencyLimit(Integer concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+    
+    public Integer getInFlight() {
+        return inFlight;
+    }
+    
+    public void setInFlight(Integer inFlight) {
+        this.inFlight = inFlight;
+    }
+    
+    public Integer getQueued() {
+        return queued;
+    }
+    
+    public void setQueued(Integer queued) {
+        this.queued = queued;
+    }
+    
+    public Long getRejectedCount() {
+        return rejectedCount;
+    }
+    
+    public void setRejectedCount(Long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+    
+    public String getCircuitState() {
+        return circuitState;
+    }
+    
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+    
+    public Long getCircuitRejectedCount() {
+        return circuitRejectedCount;
+    }
+    
+    public void setCircuitRejectedCount(Long circuitRejectedCount) {
+        this.circuitRejectedCount = circuitRejectedCount;
+    }
+    
+    public List<ApiKeyQuota> getApiKeys() {
+        return apiKeys;
+    }
+    
+    public void setApiKeys(List<ApiKeyQuota> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+    
+    public Integer getQuotaQueuedInteractive() {
+        return quotaQueuedInteractive;
+    }
+    
+    public void setQuotaQueuedInteractive(Integer quotaQueuedInteractive) {
+        this.quotaQueuedInteractive = quotaQueuedInteractive;
+    }
+    
+    public Integer getQuotaQueuedBackground() {
+        return quotaQueuedBackground;
+    }
+    
+    public void setQuotaQueuedBackground(Integer quotaQueuedBackground) {
+        this.quotaQueuedBackground = quotaQueuedBackground;
+    }
+    
+    public Long getQuotaRejectedCount() {
+        return quotaRejectedCount;
+    }
+    
+    public void setQuotaRejectedCount(Long quotaRejectedCount) {
+        this.quotaRejectedCount = quotaRejectedCount;
+    }
+}
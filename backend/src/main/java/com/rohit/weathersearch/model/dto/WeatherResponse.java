@@ -1,5 +1,7 @@
 package com.rohit.weathersearch.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 
 /**
@@ -8,6 +10,8 @@ import java.time.LocalDateTime;
  */
 public class WeatherResponse {
     
+    @JsonIgnore
+    private Long cityId; // OpenWeatherMap city id, used for group calls; not sent to clients
     private String cityName;
     private String country;
     private Double temperature;
@@ -27,8 +31,10 @@ public class WeatherResponse {
     private Long sunset;
     private Double latitude;
     private Double longitude;
+    private Long observedAt; // when the upstream reading was taken (dt), epoch seconds
     private LocalDateTime timestamp;
     private Boolean fromCache;
+    private Boolean stale; // true when served past its TTL because the API is failing
     
     // Constructors
     public WeatherResponse() {
@@ -43,6 +49,14 @@ public class WeatherResponse {
     }
     
     // Getters and Setters
+    public Long getCityId() {
+        return cityId;
+    }
+    
+    public void setCityId(Long cityId) {
+        this.cityId = cityId;
+    }
+    
     public String getCityName() {
         return cityName;
     }
@@ -195,6 +209,14 @@ public class WeatherResponse {
         this.longitude = longitude;
     }
     
+    public Long getObservedAt() {
+        return observedAt;
+    }
+    
+    public void setObservedAt(Long observedAt) {
+        this.observedAt = observedAt;
+    }
+    
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -210,4 +232,12 @@ public class WeatherResponse {
     public void setFromCache(Boolean fromCache) {
         this.fromCache = fromCache;
     }
-}
\ No newline at end of file
+    
+    public Boolean getStale() {
+        return stale;
+    }
+    
+    public void setStale(Boolean stale) {
+        this.stale = stale;
+    }
+}
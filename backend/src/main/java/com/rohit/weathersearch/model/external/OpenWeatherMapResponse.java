@@ -11,6 +11,7 @@ public class OpenWeatherMapResponse {
     private Clouds clouds;
     private Sys sys;
     private Integer visibility;
+    private Long dt;
     private String name;
 
     // ===== Getters & Setters =====
@@ -71,6 +72,14 @@ public class OpenWeatherMapResponse {
         this.visibility = visibility;
     }
 
+    public Long getDt() {
+        return dt;
+    }
+
+    public void setDt(Long dt) {
+        this.dt = dt;
+    }
+
     public String getName() {
         return name;
     }
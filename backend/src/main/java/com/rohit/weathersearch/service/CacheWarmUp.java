@@ -0,0 +1,184 @@
+package com.rohit.weathersearch.service;
+
+import com.rohit.weathersearch.cache.PopularCityTracker;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the city weather cache on startup from a snapshot of popular cities.
+ *
+ * While running, the most requested cities are periodically written to a
+ * snapshot file. On the next startup those cities are prefetched at a capped
+ * rate. Spring Boot only reports the application as ready once every
+ * ApplicationRunner has returned, so with block-readiness the instance stays
+ * out of rotation until warm-up finishes or the readiness timeout passes.
+ */
+@Component
+public class CacheWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    private final WeatherServiceImpl weatherService;
+    private final PopularCityTracker popularCityTracker;
+    private final ScheduledExecutorService snapshotWriter;
+
+    @Value("${cache.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.warmup.snapshot-path:data/popular-cities.txt}")
+    private Path snapshotPath;
+
+    @Value("${cache.warmup.top-n:100}")
+    private int topN;
+
+    @Value("${cache.warmup.snapshot-interval-seconds:300}")
+    private int snapshotIntervalSeconds;
+
+    @Value("${cache.warmup.rate-per-second:5}")
+    private int ratePerSecond;
+
+    @Value("${cache.warmup.block-readiness:true}")
+    private boolean blockReadiness;
+
+    @Value("${cache.warmup.readiness-timeout-seconds:30}")
+    private int readinessTimeoutSeconds;
+
+    public CacheWarmUp(WeatherServiceImpl weatherService, PopularCityTracker popularCityTracker) {
+        this.weatherService = weatherService;
+        this.popularCityTracker = popularCityTracker;
+        this.snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popular-city-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalStateException("cache.warmup.rate-per-second must be positive");
+        }
+        snapshotWriter.scheduleWithFixedDelay(this::writeSnapshotQuietly,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+
+        List<String> cities = readSnapshot();
+        if (cities.isEmpty()) {
+            return;
+        }
+
+        log.info("Warming up cache with {} popular cities at {}/s", cities.size(), ratePerSecond);
+        long start = System.nanoTime();
+        CompletableFuture<Long> warmUp = warmUp(cities).toFuture();
+        warmUp.thenAccept(loaded -> log.info("Cache warm-up done: {} of {} cities loaded in {} ms",
+                loaded, cities.size(), (System.nanoTime() - start) / 1_000_000));
+
+        if (blockReadiness) {
+            awaitWarmUp(warmUp);
+        }
+    }
+
+    /**
+     * Prefetches the cities at no more than ratePerSecond, skipping failures.
+     */
+    Mono<Long> warmUp(List<String> cities) {
+        return Flux.fromIterable(cities)
+                .delayElements(Duration.ofNanos(1_000_000_000L / ratePerSecond))
+                .flatMap(city -> weatherService.prefetchCity(city)
+                        .onErrorResume(e -> {
+                            log.debug("Warm-up skipped {}: {}", city, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .count();
+    }
+
+    /**
+     * Writes the most requested cities, then decays the counts so the next
+     * snapshot favors recent demand.
+     */
+    void writeSnapshot() throws IOException {
+        List<String> cities = popularCityTracker.topCities(topN);
+        if (cities.isEmpty()) {
+            return;
+        }
+
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "popular-cities", ".tmp");
+        Files.write(temporary, cities, StandardCharsets.UTF_8);
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        popularCityTracker.decay();
+
+        log.debug("Wrote popular-city snapshot with {} cities to {}", cities.size(), snapshotPath);
+    }
+
+    /**
+     * Keeps the latest demand for the next startup.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshotWriter.shutdownNow();
+        if (enabled) {
+            writeSnapshotQuietly();
+        }
+    }
+
+    private void awaitWarmUp(CompletableFuture<Long> warmUp) {
+        try {
+            warmUp.get(readinessTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up still running after {} s, marking instance ready anyway", readinessTimeoutSeconds);
+        } catch (ExecutionException e) {
+            log.warn("Cache warm-up failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> readSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("No popular-city snapshot at {}, skipping cache warm-up", snapshotPath);
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(snapshotPath, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .limit(topN)
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Unable to read popular-city snapshot {}, skipping cache warm-up", snapshotPath, e);
+            return List.of();
+        }
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to write popular-city snapshot {}", snapshotPath, e);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package com.rohit.weathersearch.service;
 
 
+import com.rohit.weathersearch.config.CacheConfig;
+import com.rohit.weathersearch.model.dto.BatchWeatherResponse;
 import com.rohit.weathersearch.model.dto.CacheStatsResponse;
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import com.rohit.weathersearch.model.dto.HotCitiesResponse;
+import com.rohit.weathersearch.model.dto.SerializedWeather;
+import com.rohit.weathersearch.model.dto.UpstreamStatsResponse;
 import com.rohit.weathersearch.model.dto.WeatherResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * Service interface for weather operations.
@@ -11,18 +20,112 @@ import com.rohit.weathersearch.model.dto.WeatherResponse;
 public interface WeatherService {
     
     /**
-     * Retrieves current weather for a given city.
+     * Retrieves current weather for a given city without blocking the caller.
      * Results are cached to improve performance.
      * 
      * @param cityName Name of the city
+     * @return Mono emitting WeatherResponse containing weather information
+     */
+    Mono<WeatherResponse> getCurrentWeatherAsync(String cityName);
+    
+    /**
+     * Retrieves current weather for a given city as ready-to-send JSON bytes.
+     * 
+     * @param cityName Name of the city
+     * @return Mono emitting the encoded response, its ETag and whether it was a cache hit
+     */
+    Mono<SerializedWeather> getCurrentWeatherJsonAsync(String cityName);
+    
+    /**
+     * Serves a city this replica owns to a peer replica, in peer mode.
+     * Loaded locally on a miss (never from another peer), not counted as a
+     * user lookup, and never answered with stale data.
+     * 
+     * @param cityName Name of the city
+     * @return Mono emitting the encoded response and its age
+     */
+    Mono<SerializedWeather> getCurrentWeatherForPeerAsync(String cityName);
+    
+    /**
+     * Retrieves current weather for a given city.
+     * Blocking adapter over {@link #getCurrentWeatherAsync(String)}.
+     * 
+     * @param cityName Name of the city
      * @return WeatherResponse containing weather information
      */
-    WeatherResponse getCurrentWeather(String cityName);
+    default WeatherResponse getCurrentWeather(String cityName) {
+        return getCurrentWeatherAsync(cityName).block();
+    }
     
     /**
-     * Retrieves cache statistics for monitoring.
+     * Retrieves current weather for a coordinate without blocking the caller.
+     * Nearby coordinates share a cached entry.
+     * 
+     * @param latitude Latitude in degrees (-90 to 90)
+     * @param longitude Longitude in degrees (-180 to 180)
+     * @return Mono emitting WeatherResponse containing weather information
+     */
+    Mono<WeatherResponse> getCurrentWeatherByCoordinatesAsync(double latitude, double longitude);
+    
+    /**
+     * Retrieves current weather for a coordinate as ready-to-send JSON bytes.
+     * 
+     * @param latitude Latitude in degrees (-90 to 90)
+     * @param longitude Longitude in degrees (-180 to 180)
+     * @return Mono emitting the encoded response, its ETag and whether it was a cache hit
+     */
+    Mono<SerializedWeather> getCurrentWeatherByCoordinatesJsonAsync(double latitude, double longitude);
+    
+    /**
+     * Retrieves current weather for several cities in one call.
+     * Each city gets either its weather or its own error; one failing city
+     * does not fail the batch.
+     * 
+     * @param cityNames Names of the cities, in the order results should be returned
+     * @return Mono emitting BatchWeatherResponse with one result per requested city
+     */
+    Mono<BatchWeatherResponse> getCurrentWeatherBatch(List<String> cityNames);
+    
+    /**
+     * Suggests city names matching a partial or slightly misspelled query.
+     * Answered from the bundled gazetteer without calling the weather API.
+     * 
+     * @param query Partial city name typed by the user
+     * @param limit Maximum number of suggestions
+     * @return Matching cities, most populous first
+     */
+    List<CitySuggestion> suggestCities(String query, int limit);
+    
+    /**
+     * Retrieves statistics of the city weather cache for monitoring.
      * 
      * @return CacheStatsResponse containing cache performance metrics
      */
-    CacheStatsResponse getCacheStatistics();
+    default CacheStatsResponse getCacheStatistics() {
+        return getCacheStatistics(CacheConfig.WEATHER_CACHE);
+    }
+    
+    /**
+     * Retrieves statistics of a named cache for monitoring.
+     * 
+     * @param cacheName Name of the cache, e.g. weatherCache or geoWeatherCache
+     * @return CacheStatsResponse containing cache performance metrics
+     */
+    CacheStatsResponse getCacheStatistics(String cacheName);
+    
+    /**
+     * Retrieves the most requested cities for sizing the cache and choosing
+     * warm-up lists.
+     * 
+     * @param limit Maximum number of cities
+     * @return HotCitiesResponse with the cities, most requested first
+     */
+    HotCitiesResponse getHotCities(int limit);
+    
+    /**
+     * Retrieves upstream API call statistics for monitoring.
+     * 
+     * @return UpstreamStatsResponse containing concurrency limiter state
+     */
+    UpstreamStatsResponse getUpstreamStatistics();
 }
\ No newline at end of file
@@ -1,25 +1,68 @@
 package com.rohit.weathersearch.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rohit.weathersearch.client.AdaptiveConcurrencyLimiter;
+import com.rohit.weathersearch.client.CircuitBreaker;
+import com.rohit.weathersearch.client.CityBatchDispatcher;
+import com.rohit.weathersearch.cache.CompactWeather;
+import com.rohit.weathersearch.cache.GeoHash;
+import com.rohit.weathersearch.cache.MappedFileCache;
+import com.rohit.weathersearch.cache.PopularCityTracker;
+import com.rohit.weathersearch.cache.WeatherExpiry;
+import com.rohit.weathersearch.client.OpenWeatherMapClient;
+import com.rohit.weathersearch.client.UpstreamPriority;
+import com.rohit.weathersearch.client.UpstreamQuotaManager;
+import com.rohit.weathersearch.cluster.PeerCacheClient;
 import com.rohit.weathersearch.config.CacheConfig;
 import com.rohit.weathersearch.exception.CityNotFoundException;
 import com.rohit.weathersearch.exception.ExternalApiException;
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import com.rohit.weathersearch.gazetteer.CityGazetteer;
+import com.rohit.weathersearch.model.dto.ApiKeyQuota;
+import com.rohit.weathersearch.model.dto.BatchWeatherResponse;
+import com.rohit.weathersearch.model.dto.BatchWeatherResult;
 import com.rohit.weathersearch.model.dto.CacheStatsResponse;
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import com.rohit.weathersearch.model.dto.ErrorResponse;
+import com.rohit.weathersearch.model.dto.HotCitiesResponse;
+import com.rohit.weathersearch.model.dto.HotCity;
+import com.rohit.weathersearch.model.dto.SerializedWeather;
+import com.rohit.weathersearch.model.dto.UpstreamStatsResponse;
 import com.rohit.weathersearch.model.dto.WeatherResponse;
-import com.rohit.weathersearch.model.external.OpenWeatherMapResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Implementation of WeatherService.
@@ -30,103 +73,622 @@ public class WeatherServiceImpl implements WeatherService {
     
     private static final Logger log = LoggerFactory.getLogger(WeatherServiceImpl.class);
     
-    private final WebClient webClient;
+    // Keeps geohash cells apart from city names in the stale store
+    private static final String GEO_STALE_PREFIX = "geo:";
+    
+    private final OpenWeatherMapClient weatherClient;
+    private final CityBatchDispatcher batchDispatcher;
+    private final CityGazetteer cityGazetteer;
     private final CacheManager cacheManager;
+    private final AsyncLoadingCache<String, CompactWeather> weatherCache;
+    private final AsyncLoadingCache<String, CompactWeather> geoWeatherCache;
+    private final Cache<String, Boolean> negativeCityCache;
+    private final Cache<String, CompactWeather> staleWeatherCache;
+    private final MappedFileCache l2Cache; // null unless cache.l2.enabled
+    private final PeerCacheClient peerCacheClient; // null unless cluster.enabled
+    private final PopularCityTracker popularCityTracker;
+    private final WeatherExpiry weatherExpiry;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${cache.geohash-precision:5}")
+    private int geohashPrecision;
+    
+    @Value("${gazetteer.reject-unknown-cities:false}")
+    private boolean rejectUnknownCities;
+    
+    @Value("${batch.max-concurrency:10}")
+    private int batchMaxConcurrency;
     
-    @Value("${openweather.api.key}")
-    private String apiKey;
+    @Value("${cache.serialized-json.enabled:false}")
+    private boolean serializedJsonEnabled;
     
-    public WeatherServiceImpl(WebClient webClient, CacheManager cacheManager) {
-        this.webClient = webClient;
+    @Value("${cache.refresh-ahead.enabled:false}")
+    private boolean refreshAheadEnabled;
+    
+    @Value("${cache.variable-ttl.enabled:false}")
+    private boolean variableTtlEnabled;
+    
+    public WeatherServiceImpl(OpenWeatherMapClient weatherClient, CityBatchDispatcher batchDispatcher,
+                              CityGazetteer cityGazetteer,
+                              CaffeineCacheManager cacheManager, Caffeine<String, CompactWeather> caffeineConfig,
+                              WeatherExpiry weatherExpiry,
+                              Cache<String, Boolean> negativeCityCache,
+                              Cache<String, CompactWeather> staleWeatherCache,
+                              ObjectProvider<MappedFileCache> l2Cache, ObjectProvider<PeerCacheClient> peerCacheClient,
+                              ObjectMapper objectMapper, PopularCityTracker popularCityTracker,
+                              MeterRegistry meterRegistry) {
+        this.weatherClient = weatherClient;
+        this.batchDispatcher = batchDispatcher;
+        this.cityGazetteer = cityGazetteer;
         this.cacheManager = cacheManager;
+        this.negativeCityCache = negativeCityCache;
+        this.staleWeatherCache = staleWeatherCache;
+        this.weatherExpiry = weatherExpiry;
+        this.l2Cache = l2Cache.getIfAvailable();
+        this.peerCacheClient = peerCacheClient.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.popularCityTracker = popularCityTracker;
+        this.meterRegistry = meterRegistry;
+        
+        // The loader is only used for refresh-ahead reloads, which skip L2; misses go through loadCity.
+        // Nobody waits for a reload, so it yields API quota to user misses
+        this.weatherCache = caffeineConfig.buildAsync(
+                (key, executor) -> fetchCityViaOwner(key, UpstreamPriority.BACKGROUND).toFuture());
+        cacheManager.registerCustomCache(CacheConfig.WEATHER_CACHE, asObjectCache(weatherCache));
+        // Bound here: the caches are registered after actuator has bound the cache manager's caches
+        CaffeineCacheMetrics.monitor(meterRegistry, weatherCache, CacheConfig.WEATHER_CACHE);
+        
+        // Keyed by geohash cell; every load (miss or refresh) queries the cell center.
+        // As above, the loader only runs refreshes
+        this.geoWeatherCache = caffeineConfig.buildAsync(
+                (geohash, executor) -> fetchCell(geohash, UpstreamPriority.BACKGROUND).toFuture());
+        cacheManager.registerCustomCache(CacheConfig.GEO_WEATHER_CACHE, asObjectCache(geoWeatherCache));
+        CaffeineCacheMetrics.monitor(meterRegistry, geoWeatherCache, CacheConfig.GEO_WEATHER_CACHE);
     }
     
     /**
-     * Retrieves current weather with caching.
+     * Retrieves current weather with caching, without blocking the caller.
      * Cache key is the lowercase city name for case-insensitive caching.
+     * Concurrent misses for the same key share the in-flight upstream call,
+     * including its error. Reading an entry past its refresh age returns it
+     * immediately and reloads it in the background. Cities the API recently
+     * reported as unknown fail from the negative cache without an upstream call.
+     * When the API fails (or its circuit is open), the last known value is
+     * served marked stale, even past its TTL; the error is returned only if there is none.
      */
     @Override
-    @Cacheable(
-    	    value = CacheConfig.WEATHER_CACHE,
-    	    key = "#cityName.toLowerCase().trim()",
-    	    unless = "#result == null"
-    	)
-    public WeatherResponse getCurrentWeather(String cityName) {
+    public Mono<WeatherResponse> getCurrentWeatherAsync(String cityName) {
+        return withCacheStatus(CacheConfig.WEATHER_CACHE,
+                loaded -> lookupRequestedCity(cityName, loaded), CompactWeather::toResponse);
+    }
+    
+    /**
+     * Retrieves current weather for a city as JSON bytes.
+     * With cache.serialized-json.enabled the bytes and ETag were computed when
+     * the entry was cached, so a hit costs no serialization at all.
+     */
+    @Override
+    public Mono<SerializedWeather> getCurrentWeatherJsonAsync(String cityName) {
+        return withCacheStatus(CacheConfig.WEATHER_CACHE,
+                loaded -> lookupRequestedCity(cityName, loaded), this::serialize);
+    }
+    
+    /**
+     * Serves a city to the peer replica that asked its owner for it.
+     * Concurrent peer and user misses share one load through the cache.
+     */
+    @Override
+    public Mono<SerializedWeather> getCurrentWeatherForPeerAsync(String cityName) {
+        String normalizedCityName = cityName.trim();
+        return withCacheStatus(CacheConfig.WEATHER_CACHE,
+                loaded -> cachedCity(normalizedCityName, loaded,
+                        () -> loadCity(normalizedCityName, UpstreamPriority.INTERACTIVE, false)),
+                this::serialize);
+    }
+    
+    /**
+     * Loads a city into the cache ahead of demand, as warm-up does.
+     * Unlike a user lookup, it does not count towards the city's popularity,
+     * and its upstream call yields API quota to user lookups.
+     */
+    Mono<WeatherResponse> prefetchCity(String cityName) {
+        return withCacheStatus(CacheConfig.WEATHER_CACHE,
+                loaded -> lookupCity(cityName.trim(), loaded, UpstreamPriority.BACKGROUND),
+                CompactWeather::toResponse);
+    }
+    
+    /**
+     * Reads a city for a stream poll. A subscriber is waiting, so its upstream
+     * call has user priority, but a poll only repeats the subscription and
+     * does not count towards the city's popularity.
+     */
+    Mono<WeatherResponse> pollCity(String cityName) {
+        return withCacheStatus(CacheConfig.WEATHER_CACHE,
+                loaded -> lookupCity(cityName.trim(), loaded, UpstreamPriority.INTERACTIVE),
+                CompactWeather::toResponse);
+    }
+    
+    /**
+     * Validates and counts a user's city lookup, then serves it from the cache.
+     */
+    private Mono<CompactWeather> lookupRequestedCity(String cityName, AtomicBoolean loaded) {
         log.info("Fetching weather data for city: {}", cityName);
         
         // Validate input
         if (cityName == null || cityName.trim().isEmpty()) {
-            throw new IllegalArgumentException("City name cannot be empty");
+            return Mono.error(new IllegalArgumentException("City name cannot be empty"));
         }
         
         // Normalize city name
         String normalizedCityName = cityName.trim();
+        popularCityTracker.record(normalizedCityName.toLowerCase());
         
-        try {
-            // Call OpenWeatherMap API
-            OpenWeatherMapResponse apiResponse = webClient
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                            .queryParam("q", normalizedCityName)
-                            .queryParam("appid", apiKey)
-                            .queryParam("units", "metric") // Use metric units (Celsius)
-                            .build())
-                    .retrieve()
-                    .onStatus(
-                        status -> status.is4xxClientError(),
-                        response -> Mono.error(new CityNotFoundException(normalizedCityName))
-                    )
-                    .onStatus(
-                        status -> status.is5xxServerError(),
-                        response -> Mono.error(new ExternalApiException("Weather API server error"))
-                    )
-                    .bodyToMono(OpenWeatherMapResponse.class)
-                    .block(); // Block for synchronous operation
-            
-            if (apiResponse == null) {
-                throw new ExternalApiException("Received null response from weather API");
+        return lookupCity(normalizedCityName, loaded, UpstreamPriority.INTERACTIVE);
+    }
+    
+    /**
+     * Serves a city from the cache, loading it on a miss (from its owner in
+     * peer mode), and falls back to its stale value if the load fails.
+     * The stale fallback stays out of the cache, so the next lookup tries the API again.
+     */
+    private Mono<CompactWeather> lookupCity(String normalizedCityName, AtomicBoolean loaded,
+                                            UpstreamPriority priority) {
+        return cachedCity(normalizedCityName, loaded, () -> loadCity(normalizedCityName, priority, true))
+                .onErrorResume(ExternalApiException.class, e -> serveStale(normalizedCityName.toLowerCase(), e));
+    }
+    
+    /**
+     * Serves a city from the negative cache or the city cache, running the loader on a miss.
+     * Sets loaded when this caller started the load, i.e. the lookup was a miss.
+     */
+    private Mono<CompactWeather> cachedCity(String normalizedCityName, AtomicBoolean loaded,
+                                            Supplier<Mono<CompactWeather>> loader) {
+        String cacheKey = normalizedCityName.toLowerCase();
+        
+        if (negativeCityCache.getIfPresent(cacheKey) != null) {
+            log.debug("Negative cache hit for city: {}", normalizedCityName);
+            return Mono.error(new CityNotFoundException(normalizedCityName));
+        }
+        
+        // suppressCancel: one caller going away must not cancel the load other callers share
+        return Mono.fromFuture(
+                () -> weatherCache.get(cacheKey, (key, executor) -> {
+                    loaded.set(true);
+                    return loader.get().toFuture();
+                }),
+                true)
+                .doOnNext(weather -> {
+                    if (!loaded.get()) {
+                        refreshIfDue(weatherCache, cacheKey, weather);
+                    }
+                });
+    }
+    
+    /**
+     * With refresh-ahead and variable TTL, reloads a cache hit in the background
+     * once the expiry policy considers it due. Caffeine only refreshes after a
+     * fixed age, which would mostly fetch readings that are not out yet, so
+     * these reloads are started on read instead; concurrent ones share one
+     * load, and every reload is a real upstream call in the cache's load stats.
+     */
+    private void refreshIfDue(AsyncLoadingCache<String, CompactWeather> cache, String key,
+                              CompactWeather weather) {
+        if (refreshAheadEnabled && variableTtlEnabled && weatherExpiry.isRefreshDue(weather)) {
+            cache.synchronous().refresh(key);
+        }
+    }
+    
+    /**
+     * Retrieves current weather for a coordinate, without blocking the caller.
+     * Coordinates are bucketed into a geohash cell of the configured precision,
+     * so nearby requests share one cache entry and one upstream call.
+     */
+    @Override
+    public Mono<WeatherResponse> getCurrentWeatherByCoordinatesAsync(double latitude, double longitude) {
+        return withCacheStatus(CacheConfig.GEO_WEATHER_CACHE,
+                loaded -> lookupCoordinates(latitude, longitude, loaded), CompactWeather::toResponse);
+    }
+    
+    /**
+     * Retrieves current weather for a coordinate as JSON bytes, like getCurrentWeatherJsonAsync.
+     */
+    @Override
+    public Mono<SerializedWeather> getCurrentWeatherByCoordinatesJsonAsync(double latitude, double longitude) {
+        return withCacheStatus(CacheConfig.GEO_WEATHER_CACHE,
+                loaded -> lookupCoordinates(latitude, longitude, loaded), this::serialize);
+    }
+    
+    /**
+     * Runs a cache lookup and presents its entry, telling the presenter whether
+     * it was a cache hit: it was unless this lookup started the load. The flag
+     * is created per subscription, so a resubscribed Mono reports correctly.
+     * The lookup is timed as weather.cache.lookup, tagged hit, miss, stale or
+     * error; a lookup that completes empty counts as an error.
+     */
+    private <T> Mono<T> withCacheStatus(String cacheName, Function<AtomicBoolean, Mono<CompactWeather>> lookup,
+                                        BiFunction<CompactWeather, Boolean, T> present) {
+        return Mono.defer(() -> {
+            AtomicBoolean loaded = new AtomicBoolean();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return lookup.apply(loaded)
+                    .doOnNext(weather -> sample.stop(lookupTimer(cacheName, lookupResult(weather, loaded))))
+                    .doOnSuccess(weather -> {
+                        if (weather == null) {
+                            // Completed without an entry: no answer for the caller either
+                            sample.stop(lookupTimer(cacheName, "error"));
+                        }
+                    })
+                    .doOnError(e -> sample.stop(lookupTimer(cacheName, "error")))
+                    .map(weather -> present.apply(weather, !loaded.get()));
+        });
+    }
+    
+    private static String lookupResult(CompactWeather weather, AtomicBoolean loaded) {
+        if (weather.isStale()) {
+            return "stale";
+        }
+        return loaded.get() ? "miss" : "hit";
+    }
+    
+    private Timer lookupTimer(String cacheName, String result) {
+        return Timer.builder("weather.cache.lookup")
+                .description("Time to answer a weather lookup, including the upstream call on a miss")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    private Mono<CompactWeather> lookupCoordinates(double latitude, double longitude, AtomicBoolean loaded) {
+        String geohash = GeoHash.encode(latitude, longitude, geohashPrecision);
+        log.info("Fetching weather data for coordinates: {},{} (cell {})", latitude, longitude, geohash);
+        
+        return Mono.fromFuture(
+                () -> geoWeatherCache.get(geohash, (key, executor) -> {
+                    loaded.set(true);
+                    return fetchCell(geohash, UpstreamPriority.INTERACTIVE).toFuture();
+                }),
+                true)
+                .doOnNext(weather -> {
+                    if (!loaded.get()) {
+                        refreshIfDue(geoWeatherCache, geohash, weather);
+                    }
+                })
+                .onErrorResume(ExternalApiException.class, e -> serveStale(GEO_STALE_PREFIX + geohash, e));
+    }
+    
+    /**
+     * Retrieves current weather for several cities.
+     * Cities are deduplicated by cache key. Cached (or already loading) entries
+     * are collected in one pass; the remaining cities are fetched upstream in
+     * parallel, at most batchMaxConcurrency at a time. A failure for one city
+     * becomes that city's error entry instead of failing the whole batch.
+     * Negative cache hits count as cache hits: they need no upstream call.
+     * A city the API fails for falls back to its stale value, if any.
+     */
+    @Override
+    public Mono<BatchWeatherResponse> getCurrentWeatherBatch(List<String> cityNames) {
+        log.info("Fetching weather data for batch of {} cities", cityNames.size());
+        
+        // Deduplicate, keeping the first spelling seen for each city
+        Map<String, String> citiesByKey = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            String normalizedCityName = cityName.trim();
+            citiesByKey.putIfAbsent(normalizedCityName.toLowerCase(), normalizedCityName);
+            popularCityTracker.record(normalizedCityName.toLowerCase());
+        }
+        
+        // Single pass over the cache to partition hits from misses
+        Map<String, CompletableFuture<CompactWeather>> hits = new LinkedHashMap<>();
+        List<String> missKeys = new ArrayList<>();
+        for (Map.Entry<String, String> city : citiesByKey.entrySet()) {
+            String cacheKey = city.getKey();
+            if (negativeCityCache.getIfPresent(cacheKey) != null) {
+                hits.put(cacheKey, CompletableFuture.failedFuture(new CityNotFoundException(city.getValue())));
+                continue;
             }
-            
-            log.info("Successfully fetched weather data for: {}", apiResponse.getName());
-            
-            // Convert to DTO
-            return convertToWeatherResponse(apiResponse, false);
-            
-        } catch (WebClientResponseException.NotFound e) {
-            log.error("City not found: {}", normalizedCityName);
-            throw new CityNotFoundException(normalizedCityName);
-            
+            CompletableFuture<CompactWeather> cached = weatherCache.getIfPresent(cacheKey);
+            if (cached != null) {
+                hits.put(cacheKey, cached);
+            } else {
+                missKeys.add(cacheKey);
+            }
+        }
+        
+        Flux<Map.Entry<String, BatchWeatherResult>> fromCache = Flux.fromIterable(hits.entrySet())
+                .flatMap(hit -> toBatchResult(hit.getKey(), Mono.fromFuture(hit.getValue(), true)
+                        .doOnNext(weather -> refreshIfDue(weatherCache, hit.getKey(), weather)), true));
+        
+        Flux<Map.Entry<String, BatchWeatherResult>> fromUpstream = Flux.fromIterable(missKeys)
+                .flatMap(cacheKey -> toBatchResult(cacheKey, Mono.fromFuture(
+                        () -> loadMiss(cacheKey, citiesByKey.get(cacheKey)), true), false),
+                        batchMaxConcurrency);
+        
+        return Flux.merge(fromCache, fromUpstream)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(resultsByKey -> {
+                    // Back to request order, echoing each requested spelling
+                    List<BatchWeatherResult> results = new ArrayList<>(cityNames.size());
+                    for (String cityName : cityNames) {
+                        BatchWeatherResult result = resultsByKey.get(cityName.trim().toLowerCase());
+                        results.add(new BatchWeatherResult(cityName, result.getWeather(), result.getError()));
+                    }
+                    return new BatchWeatherResponse(results, hits.size(), missKeys.size());
+                });
+    }
+    
+    /**
+     * Starts the upstream load for a key found missing by the batch cache pass.
+     * Goes through the cache map directly so the miss is not counted twice,
+     * and joins any load another caller started in the meantime.
+     */
+    private CompletableFuture<CompactWeather> loadMiss(String cacheKey, String normalizedCityName) {
+        CompletableFuture<CompactWeather> load = new CompletableFuture<>();
+        CompletableFuture<CompactWeather> existing = weatherCache.asMap().putIfAbsent(cacheKey, load);
+        if (existing != null) {
+            return existing;
         }
-//        catch (WebClientResponseException e) {
-//            log.error("API error: Status {}, Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
-//            throw new ExternalApiException("Weather API returned error: " + e.getMessage());
-//            
-//        } 
-        catch (CityNotFoundException e) {
-            throw e; // let GlobalExceptionHandler handle 404
+        loadCity(normalizedCityName, UpstreamPriority.INTERACTIVE, true)
+                .subscribe(load::complete, load::completeExceptionally);
+        return load;
+    }
+    
+    /**
+     * Wraps one city's lookup as a batch result, turning its error into an ErrorResponse.
+     */
+    private Mono<Map.Entry<String, BatchWeatherResult>> toBatchResult(String cacheKey, Mono<CompactWeather> lookup,
+                                                                      boolean fromCache) {
+        return lookup
+                .onErrorResume(ExternalApiException.class, e -> serveStale(cacheKey, e))
+                .map(weather -> new BatchWeatherResult(cacheKey, weather.toResponse(fromCache), null))
+                .onErrorResume(e -> Mono.just(new BatchWeatherResult(cacheKey, null, toErrorResponse(e))))
+                .map(result -> Map.entry(cacheKey, result));
+    }
+    
+    /**
+     * Maps a per-city failure to the same status and message GlobalExceptionHandler would use.
+     */
+    private ErrorResponse toErrorResponse(Throwable e) {
+        if (e instanceof CityNotFoundException) {
+            return ErrorResponse.of(HttpStatus.NOT_FOUND.value(), "City Not Found", e.getMessage(), null);
         }
-        catch (ExternalApiException e) {
-            throw e; // keep 502 for real API failures
+        if (e instanceof UpstreamBusyException) {
+            return ErrorResponse.of(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable",
+                    "Weather service is busy. Please try again shortly.", null);
         }
-        catch (Exception e) {
-            log.error("Unexpected error fetching weather data", e);
-            throw new ExternalApiException("Unexpected error while fetching weather data", e);
+        if (e instanceof ExternalApiException) {
+            return ErrorResponse.of(HttpStatus.BAD_GATEWAY.value(), "External API Error",
+                    "Unable to fetch weather data. Please try again later.", null);
         }
-
+        log.error("Unexpected error in batch lookup", e);
+        return ErrorResponse.of(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error",
+                "An unexpected error occurred. Please try again later.", null);
     }
     
     /**
-     * Retrieves cache statistics from Caffeine cache.
+     * Suggests city names from the offline gazetteer; never calls the API.
      */
     @Override
-    public CacheStatsResponse getCacheStatistics() {
-        log.debug("Fetching cache statistics");
+    public List<CitySuggestion> suggestCities(String query, int limit) {
+        return cityGazetteer.suggest(query, limit);
+    }
+    
+    /**
+     * Loads a city missing from the in-memory cache: from the L2 disk cache
+     * when it holds a fresh enough entry, otherwise from its owner replica
+     * (with askOwner, in peer mode) or the API.
+     */
+    private Mono<CompactWeather> loadCity(String normalizedCityName, UpstreamPriority priority, boolean askOwner) {
+        String cacheKey = normalizedCityName.toLowerCase();
+        CompactWeather stored = readFromL2(cacheKey);
+        if (stored != null) {
+            retainStale(cacheKey, stored);
+            return Mono.just(stored);
+        }
+        return askOwner ? fetchCityViaOwner(normalizedCityName, priority) : fetchCity(normalizedCityName, priority);
+    }
+    
+    /**
+     * In peer mode, fetches a city another replica owns from that replica,
+     * and from the API only if the owner cannot answer. The owner's answer
+     * keeps its fetch time; an unknown city is negative-cached here too.
+     */
+    private Mono<CompactWeather> fetchCityViaOwner(String normalizedCityName, UpstreamPriority priority) {
+        String cacheKey = normalizedCityName.toLowerCase();
+        String owner = peerCacheClient != null ? peerCacheClient.remoteOwnerOf(cacheKey) : null;
+        if (owner == null) {
+            return fetchCity(normalizedCityName, priority);
+        }
+        return peerCacheClient.fetch(owner, normalizedCityName)
+                .map(peer -> compact(peer.response(), peer.fetchedAtMillis()))
+                .doOnNext(weather -> retainStale(cacheKey, weather))
+                .doOnError(CityNotFoundException.class, e -> negativeCityCache.put(cacheKey, Boolean.TRUE))
+                .onErrorResume(e -> !(e instanceof CityNotFoundException), e -> {
+                    log.warn("Owner {} could not serve {}, calling the API: {}", owner, cacheKey, e.getMessage());
+                    return fetchCity(normalizedCityName, priority);
+                });
+    }
+    
+    /**
+     * Fetches a city from the API and packs it for the cache, keeping it as the city's last known value.
+     */
+    private Mono<CompactWeather> fetchCity(String normalizedCityName, UpstreamPriority priority) {
+        return fetchFromApi(normalizedCityName, priority)
+                .map(this::compact)
+                .doOnNext(weather -> retainStale(normalizedCityName.toLowerCase(), weather))
+                .doOnError(WeatherServiceImpl::isUnexpected,
+                        e -> log.error("Unexpected error loading weather for {}", normalizedCityName, e));
+    }
+    
+    /**
+     * Fetches a geohash cell from the API and packs it for the cache, keeping it as the cell's last known value.
+     */
+    private Mono<CompactWeather> fetchCell(String geohash, UpstreamPriority priority) {
+        return fetchFromApiByGeohash(geohash, priority)
+                .map(this::compact)
+                .doOnNext(weather -> retainStale(GEO_STALE_PREFIX + geohash, weather))
+                .doOnError(WeatherServiceImpl::isUnexpected,
+                        e -> log.error("Unexpected error loading weather for cell {}", geohash, e));
+    }
+    
+    /**
+     * Upstream failures and unknown locations are expected and handled by the
+     * callers; anything else is a bug worth a stack trace. Caffeine's own log
+     * of failed loads is turned down in application.properties.
+     */
+    private static boolean isUnexpected(Throwable e) {
+        return !(e instanceof ExternalApiException) && !(e instanceof CityNotFoundException);
+    }
+    
+    private void retainStale(String staleKey, CompactWeather weather) {
+        staleWeatherCache.put(staleKey, weather);
+    }
+    
+    /**
+     * Answers an upstream failure with the last known value, marked stale, or passes the error on.
+     */
+    private Mono<CompactWeather> serveStale(String staleKey, ExternalApiException error) {
+        CompactWeather lastKnown = staleWeatherCache.getIfPresent(staleKey);
+        if (lastKnown == null) {
+            return Mono.error(error);
+        }
+        log.warn("Serving stale weather for {} after upstream failure: {}", staleKey, error.getMessage());
+        return Mono.just(CompactWeather.stale(lastKnown));
+    }
+    
+    /**
+     * Calls OpenWeatherMap API for the given city.
+     * With gazetteer.reject-unknown-cities, names the gazetteer does not know
+     * fail with CityNotFoundException without spending an upstream call.
+     * Cities the API reports as unknown are remembered in the negative cache,
+     * successful responses are written through to the L2 disk cache. With
+     * openweather.group.enabled, concurrent lookups share group calls.
+     */
+    private Mono<WeatherResponse> fetchFromApi(String normalizedCityName, UpstreamPriority priority) {
+        if (rejectUnknownCities && !cityGazetteer.isKnownCity(normalizedCityName)) {
+            log.info("Rejecting city unknown to gazetteer: {}", normalizedCityName);
+            return Mono.error(new CityNotFoundException(normalizedCityName));
+        }
+        return batchDispatcher.fetchCurrentWeather(normalizedCityName, priority)
+                .doOnError(CityNotFoundException.class,
+                        e -> negativeCityCache.put(normalizedCityName.toLowerCase(), Boolean.TRUE))
+                .doOnNext(response -> writeToL2(normalizedCityName.toLowerCase(), response));
+    }
+    
+    /**
+     * Calls OpenWeatherMap API for the center of a geohash cell.
+     */
+    private Mono<WeatherResponse> fetchFromApiByGeohash(String geohash, UpstreamPriority priority) {
+        double[] center = GeoHash.decodeCenter(geohash);
+        return weatherClient.fetchCurrentWeather(center[0], center[1], priority);
+    }
+    
+    /**
+     * Packs a response just fetched from the API for the cache.
+     */
+    private CompactWeather compact(WeatherResponse response) {
+        return compact(response, System.currentTimeMillis());
+    }
+    
+    /**
+     * Packs a response for the cache with its deadline, decided now, and
+     * pre-encodes it as served on a cache hit when enabled.
+     */
+    private CompactWeather compact(WeatherResponse response, long fetchedAtMillis) {
+        CompactWeather weather = CompactWeather.from(response, fetchedAtMillis);
+        long expiresAtMillis = weatherExpiry.expiresAtMillis(weather);
+        if (!serializedJsonEnabled) {
+            return CompactWeather.from(response, fetchedAtMillis, expiresAtMillis, null, null);
+        }
+        byte[] json = toJson(weather.toResponse(true));
+        return CompactWeather.from(response, fetchedAtMillis, expiresAtMillis, json, etagOf(json));
+    }
+    
+    /**
+     * Encodes the entry with its HTTP caching metadata. Cache hits reuse the
+     * pre-encoded JSON when there is one; a miss (fromCache false) is encoded
+     * now and, being a different body, gets its own ETag. Stale data is
+     * already past its TTL, so it gets no freshness lifetime.
+     */
+    private SerializedWeather serialize(CompactWeather weather, boolean fromCache) {
+        long ageSeconds = Math.max(0, (System.currentTimeMillis() - weather.getFetchedAtMillis()) / 1000);
+        long lifetimeSeconds = (weatherExpiry.expiresAtMillis(weather) - weather.getFetchedAtMillis()) / 1000;
+        long maxAgeSeconds = weather.isStale() ? 0 : Math.max(0, lifetimeSeconds - ageSeconds);
+        
+        if (fromCache && weather.getJson() != null) {
+            return new SerializedWeather(weather.getJson(), weather.getEtag(), true, ageSeconds, maxAgeSeconds,
+                    false);
+        }
+        WeatherResponse response = weather.toResponse(fromCache);
+        byte[] json = toJson(response);
+        return new SerializedWeather(json, etagOf(json), response.getFromCache(), ageSeconds, maxAgeSeconds,
+                weather.isStale());
+    }
+    
+    private byte[] toJson(WeatherResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize weather response", e);
+        }
+    }
+    
+    /**
+     * Strong entity tag derived from the body bytes.
+     */
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Reads a city from the L2 disk cache; null if disabled, absent, expired or unreadable.
+     * The entry keeps its original fetch time.
+     */
+    private CompactWeather readFromL2(String cacheKey) {
+        if (l2Cache == null) {
+            return null;
+        }
+        MappedFileCache.Entry entry = l2Cache.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            log.debug("L2 cache hit for city: {}", cacheKey);
+            return compact(objectMapper.readValue(entry.value(), WeatherResponse.class), entry.writtenAtMillis());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable L2 cache entry for: {}", cacheKey, e);
+            return null;
+        }
+    }
+    
+    private void writeToL2(String cacheKey, WeatherResponse response) {
+        if (l2Cache == null) {
+            return;
+        }
+        try {
+            l2Cache.put(cacheKey, objectMapper.writeValueAsBytes(response), System.currentTimeMillis());
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to write L2 cache entry for: {}", cacheKey, e);
+        }
+    }
+    
+    /**
+     * Retrieves cache statistics from the named Caffeine cache.
+     */
+    @Override
+    public CacheStatsResponse getCacheStatistics(String cacheName) {
+        log.debug("Fetching cache statistics for: {}", cacheName);
         
         try {
-            org.springframework.cache.Cache springCache = cacheManager.getCache(CacheConfig.WEATHER_CACHE);
+            org.springframework.cache.Cache springCache = cacheManager.getCache(cacheName);
             
             if (springCache == null) {
-                log.warn("Cache not found: {}", CacheConfig.WEATHER_CACHE);
+                log.warn("Cache not found: {}", cacheName);
                 return createEmptyStats();
             }
             
@@ -148,6 +710,22 @@ public class WeatherServiceImpl implements WeatherService {
             response.setHitRate(stats.hitRate());
             response.setMissRate(stats.missRate());
             response.setEstimatedSize(nativeCache.estimatedSize());
+            nativeCache.policy().eviction()
+                    .filter(eviction -> eviction.isWeighted())
+                    .ifPresent(eviction -> {
+                        response.setWeightedSizeBytes(eviction.weightedSize().orElse(0));
+                        response.setMaximumWeightBytes(eviction.getMaximum());
+                    });
+            
+            // Unknown-city lookups short-circuit before the city cache is consulted
+            if (CacheConfig.WEATHER_CACHE.equals(cacheName)) {
+                CacheStats negativeStats = negativeCityCache.stats();
+                response.setNegativeHitCount(negativeStats.hitCount());
+                response.setNegativeMissCount(negativeStats.missCount());
+            } else {
+                response.setNegativeHitCount(0L);
+                response.setNegativeMissCount(0L);
+            }
             
             log.debug("Cache stats - Hits: {}, Misses: {}, Hit Rate: {}%", 
                     stats.hitCount(), stats.missCount(), stats.hitRate() * 100);
@@ -161,63 +739,69 @@ public class WeatherServiceImpl implements WeatherService {
     }
     
     /**
-     * Converts OpenWeatherMap API response to our DTO.
+     * Retrieves the most requested cities from the popular city tracker, with
+     * their share of all requests and whether they are in the city cache.
+     * Looking them up through the map view records no cache statistics.
      */
-    private WeatherResponse convertToWeatherResponse(OpenWeatherMapResponse apiResponse, boolean fromCache) {
-        WeatherResponse response = new WeatherResponse();
-        
-        // Basic information
-        response.setCityName(apiResponse.getName());
-        response.setCountry(apiResponse.getSys() != null ? apiResponse.getSys().getCountry() : null);
-        
-        // Temperature data
-        if (apiResponse.getMain() != null) {
-            response.setTemperature(apiResponse.getMain().getTemp());
-            response.setFeelsLike(apiResponse.getMain().getFeelsLike());
-            response.setTempMin(apiResponse.getMain().getTempMin());
-            response.setTempMax(apiResponse.getMain().getTempMax());
-            response.setHumidity(apiResponse.getMain().getHumidity());
-            response.setPressure(apiResponse.getMain().getPressure());
-        }
-        
-        // Weather description
-        if (apiResponse.getWeather() != null && !apiResponse.getWeather().isEmpty()) {
-            response.setWeatherMain(apiResponse.getWeather().get(0).getMain());
-            response.setWeatherDescription(apiResponse.getWeather().get(0).getDescription());
-            response.setWeatherIcon(apiResponse.getWeather().get(0).getIcon());
-        }
-        
-        // Wind data
-        if (apiResponse.getWind() != null) {
-            response.setWindSpeed(apiResponse.getWind().getSpeed());
-            response.setWindDegree(apiResponse.getWind().getDeg());
-        }
-        
-        // Other data
-        if (apiResponse.getClouds() != null) {
-            response.setCloudiness(apiResponse.getClouds().getAll());
-        }
-        response.setVisibility(apiResponse.getVisibility());
-        
-        // Sunrise/Sunset
-        if (apiResponse.getSys() != null) {
-            response.setSunrise(apiResponse.getSys().getSunrise());
-            response.setSunset(apiResponse.getSys().getSunset());
-        }
-        
-        // Coordinates
-        if (apiResponse.getCoord() != null) {
-            response.setLatitude(apiResponse.getCoord().getLat());
-            response.setLongitude(apiResponse.getCoord().getLon());
+    @Override
+    public HotCitiesResponse getHotCities(int limit) {
+        long totalRequests = popularCityTracker.totalCount();
+        List<HotCity> cities = new ArrayList<>();
+        long cumulativeRequests = 0;
+        for (PopularCityTracker.CityCount count : popularCityTracker.cityCounts(limit)) {
+            cumulativeRequests += count.estimatedCount();
+            CompletableFuture<CompactWeather> entry = weatherCache.asMap().get(count.cacheKey());
+            CompactWeather cached = entry != null && entry.isDone() && !entry.isCompletedExceptionally()
+                    ? entry.join() : null;
+            cities.add(new HotCity(
+                    count.cacheKey(),
+                    count.estimatedCount(),
+                    share(count.estimatedCount(), totalRequests),
+                    // Estimates can run high, so the running total is capped at all requests
+                    share(Math.min(cumulativeRequests, totalRequests), totalRequests),
+                    cached != null,
+                    cached != null ? CompactWeather.estimatedEntryBytes(count.cacheKey(), cached) : null));
         }
+        return new HotCitiesResponse(totalRequests, cities);
+    }
+    
+    private static double share(long requests, long totalRequests) {
+        return totalRequests > 0 ? Math.min(1.0, (double) requests / totalRequests) : 0.0;
+    }
+    
+    /**
+     * Retrieves the upstream concurrency limiter, circuit breaker and API quota state.
+     */
+    @Override
+    public UpstreamStatsResponse getUpstreamStatistics() {
+        AdaptiveConcurrencyLimiter limiter = weatherClient.getLimiter();
+        CircuitBreaker circuitBreaker = weatherClient.getCircuitBreaker();
+        UpstreamQuotaManager quotaManager = weatherClient.getQuotaManager();
         
-        // Metadata
-        response.setTimestamp(LocalDateTime.now());
-        response.setFromCache(fromCache);
-        
+        UpstreamStatsResponse response = new UpstreamStatsResponse(
+                limiter.getLimit(),
+                limiter.getInFlight(),
+                limiter.getQueued(),
+                limiter.getRejectedCount(),
+                circuitBreaker.getState().name(),
+                circuitBreaker.getRejectedCount());
+        response.setApiKeys(quotaManager.getBudgets().stream()
+                .map(budget -> new ApiKeyQuota(budget.id(), budget.remaining(), budget.capacity()))
+                .toList());
+        response.setQuotaQueuedInteractive(quotaManager.getQueued(UpstreamPriority.INTERACTIVE));
+        response.setQuotaQueuedBackground(quotaManager.getQueued(UpstreamPriority.BACKGROUND));
+        response.setQuotaRejectedCount(quotaManager.getRejectedCount());
         return response;
     }
     
+    /**
+     * Exposes the typed cache through Spring's Object-keyed cache abstraction.
+     */
+    @SuppressWarnings("unchecked")
+    private static AsyncCache<Object, Object> asObjectCache(AsyncCache<?, ?> cache) {
+        return (AsyncCache<Object, Object>) cache;
+    }
+    
     /**
      * Creates empty cache statistics response.
      */
@@ -232,6 +816,8 @@ public class WeatherServiceImpl implements WeatherService {
         response.setHitRate(0.0);
         response.setMissRate(0.0);
         response.setEstimatedSize(0L);
+        response.setNegativeHitCount(0L);
+        response.setNegativeMissCount(0L);
         return response;
     }
 }
\ No newline at end of file
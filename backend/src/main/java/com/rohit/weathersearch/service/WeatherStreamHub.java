@@ -0,0 +1,126 @@
+package com.rohit.weathersearch.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohit.weathersearch.cache.PopularCityTracker;
+import com.rohit.weathersearch.exception.ExternalApiException;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live weather readings for streaming clients.
+ *
+ * Each city with at least one subscriber has a single shared poller that
+ * reads the city through the weather cache every poll interval, so however
+ * many clients watch a city, it costs one lookup per interval and at most one
+ * upstream call per cache TTL. A reading is pushed only when it differs from
+ * the previous one; a new subscriber gets the latest reading right away. The
+ * poller stops when its last subscriber leaves. Each subscription counts as
+ * one request towards the city's popularity; the polls do not.
+ */
+@Component
+public class WeatherStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherStreamHub.class);
+
+    private final WeatherServiceImpl weatherService;
+    private final PopularCityTracker popularCityTracker;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Flux<String>> pollers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Value("${stream.poll-interval-seconds:30}")
+    private int pollIntervalSeconds;
+
+    public WeatherStreamHub(WeatherServiceImpl weatherService, PopularCityTracker popularCityTracker,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.weatherService = weatherService;
+        this.popularCityTracker = popularCityTracker;
+        this.objectMapper = objectMapper;
+        Gauge.builder("weather.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open weather streams")
+                .register(meterRegistry);
+        Gauge.builder("weather.stream.pollers", pollers, Map::size)
+                .description("Cities polled for weather streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Readings of a city as JSON: the latest one first, then each change.
+     * Errors only for lookups that cannot succeed later, e.g. an unknown city;
+     * failed upstream calls are skipped until the next poll.
+     */
+    public Flux<String> subscribe(String cityName) {
+        String normalizedCityName = cityName.trim();
+        String key = normalizedCityName.toLowerCase();
+        return Flux.defer(() -> pollers.computeIfAbsent(key, k -> poller(k, normalizedCityName)))
+                .doOnSubscribe(subscription -> {
+                    subscriberCount.incrementAndGet();
+                    popularCityTracker.record(key);
+                })
+                .doFinally(signal -> subscriberCount.decrementAndGet());
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public int getPollerCount() {
+        return pollers.size();
+    }
+
+    private Flux<String> poller(String key, String cityName) {
+        AtomicReference<Flux<String>> self = new AtomicReference<>();
+        Flux<String> poller = Flux.interval(Duration.ZERO, Duration.ofSeconds(pollIntervalSeconds))
+                // A lookup slower than the interval skips ticks rather than queueing them
+                .onBackpressureDrop()
+                .concatMap(tick -> weatherService.pollCity(cityName)
+                        .onErrorResume(ExternalApiException.class, e -> {
+                            log.debug("Skipping stream poll for {}: {}", cityName, e.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .distinctUntilChanged(WeatherStreamHub::readingOf)
+                .map(this::toJson)
+                // Only this poller's entry: a successor may already be registered under the key
+                .doFinally(signal -> pollers.remove(key, self.get()))
+                .replay(1)
+                .refCount();
+        self.set(poller);
+        return poller;
+    }
+
+    /**
+     * The observed values, without the fetch time and cache flags, which
+     * change on every refresh even when the weather does not.
+     */
+    private static List<Object> readingOf(WeatherResponse response) {
+        return Arrays.asList(response.getTemperature(), response.getFeelsLike(), response.getTempMin(),
+                response.getTempMax(), response.getHumidity(), response.getPressure(), response.getWeatherMain(),
+                response.getWeatherDescription(), response.getWeatherIcon(), response.getWindSpeed(),
+                response.getWindDegree(), response.getCloudiness(), response.getVisibility(),
+                response.getSunrise(), response.getSunset());
+    }
+
+    private String toJson(WeatherResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize weather response", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.rohit.weathersearch.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactWeatherTest {
+
+    private static final int ENTRIES = 1_000;
+    private static final long FETCHED_AT = 1_700_000_000_000L;
+
+    @Test
+    void roundTripsEveryField() {
+        WeatherResponse original = sampleResponse(7);
+
+        CompactWeather compact = CompactWeather.from(original, FETCHED_AT);
+        WeatherResponse restored = compact.toResponse(true);
+
+        assertEquals(FETCHED_AT, compact.getFetchedAtMillis());
+        assertTrue(restored.getFromCache());
+        assertFalse(compact.toResponse(false).getFromCache());
+        assertEquals(original.getCityName(), restored.getCityName());
+        assertEquals(original.getCountry(), restored.getCountry());
+        assertEquals(original.getTemperature(), restored.getTemperature());
+        assertEquals(original.getFeelsLike(), restored.getFeelsLike());
+        assertEquals(original.getTempMin(), restored.getTempMin());
+        assertEquals(original.getTempMax(), restored.getTempMax());
+        assertEquals(original.getHumidity(), restored.getHumidity());
+        assertEquals(original.getPressure(), restored.getPressure());
+        assertEquals(original.getWeatherMain(), restored.getWeatherMain());
+        assertEquals(original.getWeatherDescription(), restored.getWeatherDescription());
+        assertEquals(original.getWeatherIcon(), restored.getWeatherIcon());
+        assertEquals(original.getWindSpeed(), restored.getWindSpeed());
+        assertEquals(original.getWindDegree(), restored.getWindDegree());
+        assertEquals(original.getCloudiness(), restored.getCloudiness());
+        assertEquals(original.getVisibility(), restored.getVisibility());
+        assertEquals(original.getSunrise(), restored.getSunrise());
+        assertEquals(original.getSunset(), restored.getSunset());
+        assertEquals(original.getLatitude(), restored.getLatitude());
+        assertEquals(original.getLongitude(), restored.getLongitude());
+        assertEquals(original.getObservedAt(), restored.getObservedAt());
+        assertEquals(original.getObservedAt() * 1000, compact.getObservedAtMillis());
+        assertEquals(original.getTimestamp(), restored.getTimestamp());
+    }
+
+    @Test
+    void keepsNullsDistinctFromZero() {
+        WeatherResponse original = new WeatherResponse();
+        original.setCityName("Nowhere");
+        original.setTemperature(0.0);
+
+        WeatherResponse restored = CompactWeather.from(original, FETCHED_AT).toResponse(true);
+
+        assertEquals(0.0, restored.getTemperature());
+        assertNull(restored.getHumidity());
+        assertNull(restored.getLatitude());
+        assertNull(restored.getTimestamp());
+        assertNull(restored.getObservedAt());
+        assertNull(restored.getCountry());
+    }
+
+    @Test
+    void sharesRepeatedStringsAndMaterializesFreshCopies() {
+        CompactWeather first = CompactWeather.from(sampleResponse(1), FETCHED_AT);
+        CompactWeather second = CompactWeather.from(sampleResponse(2), FETCHED_AT);
+
+        assertSame(first.toResponse(true).getWeatherDescription(), second.toResponse(true).getWeatherDescription());
+        assertNotSame(first.toResponse(true), first.toResponse(true));
+    }
+
+    /**
+     * Compares retained heap per cached entry, including everything reachable
+     * from it; strings shared between entries are counted once.
+     */
+    @Test
+    void compactFormUsesLessHeapPerEntry() {
+        List<WeatherResponse> responses = new ArrayList<>();
+        List<CompactWeather> compact = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            WeatherResponse response = sampleResponse(i);
+            responses.add(response);
+            compact.add(CompactWeather.from(sampleResponse(i), FETCHED_AT));
+        }
+
+        long responseBytes = GraphLayout.parseInstance(responses.toArray()).totalSize() / ENTRIES;
+        long compactBytes = GraphLayout.parseInstance(compact.toArray()).totalSize() / ENTRIES;
+
+        assertTrue(compactBytes * 2 < responseBytes,
+                "Expected compact form under half the size, was " + compactBytes + " vs " + responseBytes);
+    }
+
+    /**
+     * The weigher's estimate against the heap JOL measures, for entries with
+     * pre-encoded JSON; strings shared between entries are counted once.
+     */
+    @Test
+    void estimatedBytesTracksMeasuredHeap() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<CompactWeather> compact = new ArrayList<>();
+        long estimatedBytes = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            WeatherResponse response = sampleResponse(i);
+            CompactWeather weather = CompactWeather.from(response, FETCHED_AT,
+                    objectMapper.writeValueAsBytes(response), "\"etag-" + i + "\"");
+            compact.add(weather);
+            estimatedBytes += weather.estimatedBytes();
+        }
+
+        long measuredBytes = GraphLayout.parseInstance(compact.toArray()).totalSize();
+
+        assertTrue(Math.abs(estimatedBytes - measuredBytes) < measuredBytes / 5,
+                "Expected estimate within 20% of " + measuredBytes + ", was " + estimatedBytes);
+    }
+
+    /**
+     * Builds a response the way the API client does, with freshly parsed
+     * strings and boxed numbers for every entry.
+     */
+    private static WeatherResponse sampleResponse(int i) {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName(new String("City" + i));
+        response.setCountry(new String("GB"));
+        response.setTemperature(10.5 + i % 20);
+        response.setFeelsLike(9.8 + i % 20);
+        response.setTempMin(8.1 + i % 20);
+        response.setTempMax(12.9 + i % 20);
+        response.setHumidity(40 + i % 60);
+        response.setPressure(1000 + i % 40);
+        response.setWeatherMain(new String("Clouds"));
+        response.setWeatherDescription(new String("broken clouds"));
+        response.setWeatherIcon(new String("04d"));
+        response.setWindSpeed(3.6 + i % 10);
+        response.setWindDegree(200 + i % 100);
+        response.setCloudiness(75);
+        response.setVisibility(10000);
+        response.setSunrise(1_700_000_000L + i);
+        response.setSunset(1_700_040_000L + i);
+        response.setObservedAt(1_700_030_000L + i);
+        response.setLatitude(51.5085 + i / 1000.0);
+        response.setLongitude(-0.1257 - i / 1000.0);
+        response.setTimestamp(LocalDateTime.now());
+        response.setFromCache(false);
+        return response;
+    }
+}
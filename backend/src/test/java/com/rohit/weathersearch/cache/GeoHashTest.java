@@ -0,0 +1,38 @@
+package com.rohit.weathersearch.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeoHashTest {
+
+    @Test
+    void encodesReferenceCoordinate() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("gcpvj", GeoHash.encode(51.5085, -0.1257, 5));
+    }
+
+    @Test
+    void nearbyCoordinatesShareCell() {
+        assertEquals(GeoHash.encode(51.5085, -0.1257, 5), GeoHash.encode(51.5101, -0.1301, 5));
+        assertNotEquals(GeoHash.encode(51.5085, -0.1257, 5), GeoHash.encode(48.8566, 2.3522, 5));
+    }
+
+    @Test
+    void decodedCenterEncodesBackToSameCell() {
+        String geohash = GeoHash.encode(-33.8688, 151.2093, 6);
+        double[] center = GeoHash.decodeCenter(geohash);
+
+        assertEquals(geohash, GeoHash.encode(center[0], center[1], 6));
+        assertEquals(-33.8688, center[0], 0.01);
+        assertEquals(151.2093, center[1], 0.01);
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.decodeCenter("abc!"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.rohit.weathersearch.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileCacheTest {
+
+    private static final int CAPACITY = 64 * 1024;
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+    private static final Duration NO_BACKGROUND_COMPACTION = Duration.ofDays(1);
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void entriesSurviveReopen() {
+        Path file = dir.resolve("l2.dat");
+        try (MappedFileCache cache = open(file)) {
+            cache.put("paris", bytes("old"), clock.millis());
+            cache.put("london", bytes("rain"), clock.millis());
+            cache.put("paris", bytes("sun"), clock.millis());
+        }
+
+        try (MappedFileCache reopened = open(file)) {
+            assertEquals(2, reopened.size());
+            assertArrayEquals(bytes("sun"), reopened.get("paris").value());
+            assertArrayEquals(bytes("rain"), reopened.get("london").value());
+            assertNull(reopened.get("oslo"));
+        }
+    }
+
+    @Test
+    void expiredEntriesAreIgnoredAndCompactedAway() {
+        try (MappedFileCache cache = open(dir.resolve("l2.dat"))) {
+            cache.put("paris", bytes("stale"), clock.millis());
+            clock.advance(Duration.ofMinutes(6));
+            cache.put("london", bytes("fresh"), clock.millis());
+            cache.put("london", bytes("fresher"), clock.millis());
+            clock.advance(Duration.ofMinutes(5));
+
+            assertNull(cache.get("paris"));
+            int usedBefore = cache.usedBytes();
+
+            cache.compact();
+
+            assertEquals(1, cache.size());
+            assertTrue(cache.usedBytes() < usedBefore);
+            assertArrayEquals(bytes("fresher"), cache.get("london").value());
+        }
+    }
+
+    @Test
+    void fullFileIsCompactedBeforeDroppingWrites() {
+        try (MappedFileCache cache = open(dir.resolve("l2.dat"))) {
+            byte[] value = new byte[1000];
+            // Far more writes than fit, but only a few live keys
+            for (int i = 0; i < 500; i++) {
+                cache.put("city" + (i % 5), value, clock.millis());
+            }
+
+            assertEquals(5, cache.size());
+            assertTrue(cache.usedBytes() < CAPACITY);
+        }
+    }
+
+    @Test
+    void compactionWaitsForEnoughReclaimableBytes() {
+        try (MappedFileCache cache = open(dir.resolve("l2.dat"))) {
+            byte[] value = new byte[100];
+            for (int i = 0; i < 10; i++) {
+                cache.put("city" + i, value, clock.millis());
+            }
+            assertEquals(0, cache.reclaimableBytes());
+            assertFalse(cache.compactIfWorthwhile());
+
+            // One superseded record out of eleven is below the threshold
+            cache.put("city0", value, clock.millis());
+            assertFalse(cache.compactIfWorthwhile());
+
+            for (int i = 1; i < 5; i++) {
+                cache.put("city" + i, value, clock.millis());
+            }
+            int usedBefore = cache.usedBytes();
+            assertTrue(cache.compactIfWorthwhile());
+            assertEquals(0, cache.reclaimableBytes());
+            assertTrue(cache.usedBytes() < usedBefore);
+            assertEquals(10, cache.size());
+        }
+    }
+
+    @Test
+    void unknownFileContentStartsEmpty() throws Exception {
+        Path file = dir.resolve("l2.dat");
+        Files.write(file, bytes("not a cache file"));
+
+        try (MappedFileCache cache = open(file)) {
+            assertEquals(0, cache.size());
+            cache.put("paris", bytes("sun"), clock.millis());
+            assertArrayEquals(bytes("sun"), cache.get("paris").value());
+        }
+    }
+
+    private MappedFileCache open(Path file) {
+        return new MappedFileCache(file, CAPACITY, MAX_AGE, NO_BACKGROUND_COMPACTION, clock);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
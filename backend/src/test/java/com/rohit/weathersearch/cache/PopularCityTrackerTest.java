@@ -0,0 +1,93 @@
+package com.rohit.weathersearch.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopularCityTrackerTest {
+
+    private static final int CITIES = 20_000;
+    private static final int REQUESTS = 200_000;
+
+    /**
+     * A Zipfian request stream over many more cities than are tracked, like
+     * the load test's: the heaviest cities come out on top, in order, and no
+     * estimate is below the true count.
+     */
+    @Test
+    void findsHeavyHittersOfZipfianStream() {
+        PopularCityTracker tracker = new PopularCityTracker(50, 4096, 4);
+        Map<String, Integer> trueCounts = new HashMap<>();
+        double[] cumulative = zipfCumulative(CITIES, 1.0);
+        Random random = new Random(42);
+        for (int i = 0; i < REQUESTS; i++) {
+            String city = "city-" + rank(cumulative, random.nextDouble());
+            trueCounts.merge(city, 1, Integer::sum);
+            tracker.record(city);
+        }
+
+        assertEquals(REQUESTS, tracker.totalCount());
+        assertEquals(50, tracker.trackedCities());
+        assertEquals(List.of("city-0", "city-1", "city-2", "city-3", "city-4"), tracker.topCities(5));
+        List<String> top = tracker.topCities(20);
+        for (int rank = 0; rank < 20; rank++) {
+            assertTrue(top.contains("city-" + rank), "Missing city-" + rank + " in " + top);
+        }
+        trueCounts.forEach((city, count) -> assertTrue(tracker.estimate(city) >= count, city));
+    }
+
+    @Test
+    void newlyPopularCityDisplacesLeastRequested() {
+        PopularCityTracker tracker = new PopularCityTracker(2, 1024, 4);
+        record(tracker, "paris", 5);
+        record(tracker, "oslo", 2);
+        record(tracker, "lima", 3);
+
+        assertEquals(List.of("paris", "lima"), tracker.topCities(10));
+        assertEquals(2, tracker.trackedCities());
+    }
+
+    @Test
+    void decayHalvesCountsAndForgetsFadedCities() {
+        PopularCityTracker tracker = new PopularCityTracker(10, 1024, 4);
+        record(tracker, "paris", 8);
+        record(tracker, "oslo", 1);
+
+        tracker.decay();
+
+        assertEquals(List.of("paris"), tracker.topCities(10));
+        assertEquals(4, tracker.estimate("paris"));
+        assertEquals(4, tracker.totalCount());
+    }
+
+    private static void record(PopularCityTracker tracker, String city, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(city);
+        }
+    }
+
+    private static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int rank(double[] cumulative, double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+}
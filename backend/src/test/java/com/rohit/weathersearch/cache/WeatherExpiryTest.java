@@ -0,0 +1,108 @@
+package com.rohit.weathersearch.cache;
+
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherExpiryTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final WeatherExpiry expiry = new WeatherExpiry(true, Duration.ofMinutes(10), Duration.ofMinutes(10),
+            Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(30), 2.0, 0.5);
+
+    @Test
+    void expiresWhenTheNextObservationShouldBePublished() {
+        // Observed 4 minutes ago, neither calm nor stormy: next reading due in 6 + 1 minutes
+        CompactWeather rain = weather("Rain", 7.0, NOW - 4 * MINUTE, NOW);
+
+        assertEquals(NOW + 7 * MINUTE, expiry.expiresAtMillis(rain, NOW));
+    }
+
+    @Test
+    void stableConditionsLiveLongerAndVolatileOnesShorter() {
+        CompactWeather calm = weather("Clear", 2.0, NOW - 4 * MINUTE, NOW);
+        CompactWeather storm = weather("Thunderstorm", 2.0, NOW - 4 * MINUTE, NOW);
+        CompactWeather gale = weather("Clouds", 15.0, NOW - 4 * MINUTE, NOW);
+
+        assertEquals(NOW + 17 * MINUTE, expiry.expiresAtMillis(calm, NOW));
+        assertEquals(NOW + 2 * MINUTE, expiry.expiresAtMillis(storm, NOW));
+        assertEquals(NOW + 2 * MINUTE, expiry.expiresAtMillis(gale, NOW));
+    }
+
+    @Test
+    void overdueObservationIsExpectedInTheNextIntervalSlot() {
+        // Observed 15 minutes ago: the next reading was expected 4 minutes ago, so the one after is due in 6
+        CompactWeather late = weather("Rain", 7.0, NOW - 15 * MINUTE, NOW);
+
+        assertEquals(NOW + 6 * MINUTE, expiry.expiresAtMillis(late, NOW));
+    }
+
+    @Test
+    void ttlIsBoundedAndMissingObservationFallsBackToFixedTtl() {
+        CompactWeather calmL2Entry = weather("Clear", 2.0, NOW - 4 * MINUTE, NOW - 29 * MINUTE);
+        CompactWeather unobserved = weather("Rain", 7.0, null, NOW);
+
+        assertEquals(NOW + MINUTE, expiry.expiresAtMillis(calmL2Entry, NOW));
+        assertEquals(NOW + 10 * MINUTE, expiry.expiresAtMillis(unobserved, NOW));
+    }
+
+    @Test
+    void reloadIsDueOnlyWithinMinTtlOfExpiry() {
+        long now = System.currentTimeMillis();
+
+        assertFalse(expiry.isRefreshDue(weather("Rain", 7.0, now - 4 * MINUTE, now)));
+        assertTrue(expiry.isRefreshDue(weather("Rain", 7.0, now - 10 * MINUTE, now - 9 * MINUTE)));
+    }
+
+    @Test
+    void storedDeadlineIsNotFlooredAgainOnRead() {
+        long now = System.currentTimeMillis();
+        WeatherResponse response = weather("Rain", 7.0, now - 10 * MINUTE, now - 50_000).toResponse(false);
+        // Cached 50 s ago with the 1 minute floor: 10 s left, not another full minute
+        CompactWeather cached = CompactWeather.from(response, now - 50_000, now + 10_000, null, null);
+
+        assertEquals(now + 10_000, expiry.expiresAtMillis(cached));
+        assertTrue(expiry.expireAfterCreate("london", cached, 0) <= TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    void entryJustFetchedIsNotDueAgain() {
+        long now = System.currentTimeMillis() / 1000 * 1000; // dt has whole seconds
+        // The next reading is expected just as the minimum TTL runs out
+        CompactWeather fetched = weather("Rain", 7.0, now - 10 * MINUTE, now);
+        CompactWeather cached = CompactWeather.from(fetched.toResponse(false), now,
+                expiry.expiresAtMillis(fetched, now), null, null);
+
+        assertEquals(now + MINUTE, cached.getExpiresAtMillis());
+        assertFalse(expiry.isRefreshDue(cached));
+    }
+
+    @Test
+    void disabledExpiryKeepsTheFixedTtl() {
+        WeatherExpiry fixed = new WeatherExpiry(false, Duration.ofMinutes(10), Duration.ofMinutes(10),
+                Duration.ZERO, Duration.ZERO, Duration.ZERO, 1, 1);
+        CompactWeather calm = weather("Clear", 2.0, NOW - 4 * MINUTE, NOW);
+
+        assertEquals(NOW + 10 * MINUTE, fixed.expiresAtMillis(calm, NOW));
+        assertEquals(TimeUnit.MINUTES.toNanos(10), fixed.expireAfterCreate("london", calm, 0));
+        assertTrue(fixed.isRefreshDue(calm));
+    }
+
+    private static CompactWeather weather(String condition, double windSpeed, Long observedAtMillis,
+                                          long fetchedAtMillis) {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName("London");
+        response.setWeatherMain(condition);
+        response.setWindSpeed(windSpeed);
+        response.setObservedAt(observedAtMillis != null ? observedAtMillis / 1000 : null);
+        return CompactWeather.from(response, fetchedAtMillis);
+    }
+}
@@ -0,0 +1,89 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueueSize, Duration maxQueueWait) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100, 0.5,
+                Duration.ofSeconds(10), maxQueueSize, maxQueueWait);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenLimitReachedAndQueueDisabled() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ofSeconds(1));
+        Disposable first = limiter.execute(Mono::never, e -> true).subscribe();
+        Disposable second = limiter.execute(Mono::never, e -> true).subscribe();
+
+        assertThrows(UpstreamBusyException.class,
+                () -> limiter.execute(() -> Mono.just("x"), e -> true).block());
+        assertEquals(1, limiter.getRejectedCount());
+
+        first.dispose();
+        second.dispose();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedCallRunsWhenPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        Sinks.One<String> firstResult = Sinks.one();
+        AtomicReference<String> secondResult = new AtomicReference<>();
+
+        limiter.execute(firstResult::asMono, e -> true).subscribe();
+        limiter.execute(() -> Mono.just("second"), e -> true).subscribe(secondResult::set);
+        assertEquals(1, limiter.getQueued());
+
+        firstResult.tryEmitValue("first");
+
+        assertEquals("second", secondResult.get());
+        assertEquals(0, limiter.getQueued());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void rejectsQueuedCallAfterMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMillis(50));
+        Disposable first = limiter.execute(Mono::never, e -> true).subscribe();
+
+        Exception error = assertThrows(Exception.class,
+                () -> limiter.execute(() -> Mono.just("x"), e -> true).block(Duration.ofSeconds(5)));
+
+        assertInstanceOf(UpstreamBusyException.class, error);
+        assertEquals(0, limiter.getQueued());
+        first.dispose();
+    }
+
+    @Test
+    void dropShrinksLimitAndFastSuccessGrowsIt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 0, Duration.ofSeconds(1));
+
+        assertThrows(IllegalStateException.class, () -> limiter.execute(
+                () -> Mono.error(new IllegalStateException("overloaded")), e -> true).block());
+        assertEquals(5, limiter.getLimit());
+
+        // Errors that are not overload signals do not shrink the limit
+        assertThrows(IllegalStateException.class, () -> limiter.execute(
+                () -> Mono.error(new IllegalStateException("not found")), e -> false).block());
+        assertEquals(5, limiter.getLimit());
+
+        // Growth only happens while the limit is well utilised
+        Sinks.One<String> held = Sinks.one();
+        limiter.execute(held::asMono, e -> true).subscribe();
+        limiter.execute(held::asMono, e -> true).subscribe();
+        limiter.execute(() -> Mono.just("fast"), e -> true).block();
+        assertEquals(6, limiter.getLimit());
+        held.tryEmitValue("done");
+    }
+}
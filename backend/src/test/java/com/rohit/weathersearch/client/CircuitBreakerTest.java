@@ -0,0 +1,124 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.CircuitOpenException;
+import com.rohit.weathersearch.exception.ExternalApiException;
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    // Window of 4 calls, opens at 50% failed or 50% slow (over 100 ms), 2 half-open probes
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 0.5,
+            Duration.ofMillis(100), Duration.ofSeconds(30), 2, clock::get);
+
+    @Test
+    void opensOnFailureRateAndFailsFastWithoutCalling() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(CircuitOpenException.class, () -> breaker.execute(
+                () -> Mono.fromCallable(calls::incrementAndGet), e -> true, e -> false).block());
+        assertEquals(0, calls.get());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        succeed();
+        succeed();
+        slow();
+        slow();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void waitingBeforeTheTimerStartsIsNotSlow() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(startTimer -> Mono.fromCallable(() -> {
+                clock.addAndGet(Duration.ofMillis(150).toNanos()); // queued for quota
+                startTimer.run();
+                return clock.addAndGet(Duration.ofMillis(10).toNanos());
+            }), e -> true, e -> false).block();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void ignoredErrorsAndNonFailuresDoNotOpen() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UpstreamBusyException.class, () -> breaker.execute(
+                    () -> Mono.error(new UpstreamBusyException("busy")), e -> true,
+                    e -> e instanceof UpstreamBusyException).block());
+            assertThrows(IllegalStateException.class, () -> breaker.execute(
+                    () -> Mono.error(new IllegalStateException("not found")),
+                    e -> !(e instanceof IllegalStateException), e -> false).block());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void closesAfterSuccessfulProbes() {
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        succeed();
+        succeed();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // The window starts empty again: the failures that opened it no longer count
+        fail();
+        succeed();
+        succeed();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void reopensWhenProbeFails() {
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        fail();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void succeed() {
+        breaker.execute(() -> Mono.just("ok"), e -> true, e -> false).block();
+    }
+
+    private void slow() {
+        breaker.execute(() -> Mono.fromCallable(() -> clock.addAndGet(Duration.ofMillis(150).toNanos())),
+                e -> true, e -> false).block();
+    }
+
+    private void fail() {
+        assertThrows(ExternalApiException.class, () -> breaker.execute(
+                () -> Mono.error(new ExternalApiException("down")), e -> true, e -> false).block());
+    }
+}
@@ -0,0 +1,94 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.config.CacheConfig;
+import com.rohit.weathersearch.exception.CityNotFoundException;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.service.WeatherService;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "openweather.group.enabled=true",
+        "openweather.group.window-ms=200"
+})
+class CityBatchDispatcherTest {
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+    }
+
+    @Test
+    void concurrentMissesOfKnownCitiesShareGroupCalls() {
+        List<String> cities = IntStream.range(0, 25).mapToObj(i -> "Town" + i).toList();
+        fetchAll(cities); // first lookups go by name and teach the city ids
+        assertEquals(25, stub.hitCount());
+        stub.reset();
+        cacheManager.getCache(CacheConfig.WEATHER_CACHE).clear();
+
+        List<WeatherResponse> responses = fetchAll(cities);
+
+        assertEquals(cities, responses.stream().map(WeatherResponse::getCityName).toList());
+        // 25 lookups in calls of at most 20 ids
+        assertEquals(2, stub.groupHitCount());
+        assertEquals(2, stub.hitCount());
+    }
+
+    @Test
+    void cityMissingFromGroupAnswerStillFailsOnItsOwn() {
+        weatherService.getCurrentWeather("Vineta");
+        weatherService.getCurrentWeather("Rungholt");
+        stub.reset();
+        stub.addUnknownCity("Vineta");
+        cacheManager.getCache(CacheConfig.WEATHER_CACHE).clear();
+
+        Mono<WeatherResponse> vineta = weatherService.getCurrentWeatherAsync("Vineta");
+        Mono<WeatherResponse> rungholt = weatherService.getCurrentWeatherAsync("Rungholt");
+
+        assertThrows(CityNotFoundException.class, () -> Mono.zip(vineta, rungholt).block());
+        assertEquals("Rungholt", weatherService.getCurrentWeather("Rungholt").getCityName());
+        // One group call for both, then Vineta by name to confirm the 404
+        assertEquals(1, stub.groupHitCount());
+        assertEquals(2, stub.hitCount());
+    }
+
+    private List<WeatherResponse> fetchAll(List<String> cities) {
+        return Flux.fromIterable(cities)
+                .flatMapSequential(weatherService::getCurrentWeatherAsync)
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,64 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        // One token every 500 ms after a burst of 4, so queued calls wait
+        // well past the 300 ms slow-call threshold
+        "openweather.quota.requests-per-minute=120",
+        "openweather.quota.burst=4",
+        "openweather.quota.background-reserve=0",
+        "openweather.quota.interactive-max-wait-ms=5000",
+        "openweather.circuit-breaker.window-size=4",
+        "openweather.circuit-breaker.minimum-calls=4",
+        "openweather.circuit-breaker.slow-call-rate-threshold=0.5",
+        "openweather.circuit-breaker.slow-call-threshold-ms=300"
+})
+class OpenWeatherMapClientTest {
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    @Autowired
+    private OpenWeatherMapClient weatherClient;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void waitingForQuotaDoesNotCountAsSlowCalls() {
+        // Spend the burst one call at a time, so the queued calls below find warm connections
+        for (int i = 0; i < 4; i++) {
+            weatherClient.fetchCurrentWeather("Warmup" + i, UpstreamPriority.INTERACTIVE).block();
+        }
+        List<String> cities = IntStream.range(0, 4).mapToObj(i -> "Quota" + i).toList();
+
+        List<WeatherResponse> responses = Flux.fromIterable(cities)
+                .flatMap(city -> weatherClient.fetchCurrentWeather(city, UpstreamPriority.INTERACTIVE))
+                .collectList()
+                .block();
+
+        assertEquals(cities.size(), responses.size());
+        assertEquals(CircuitBreaker.State.CLOSED, weatherClient.getCircuitBreaker().getState());
+        assertEquals(0, weatherClient.getCircuitBreaker().getRejectedCount());
+    }
+}
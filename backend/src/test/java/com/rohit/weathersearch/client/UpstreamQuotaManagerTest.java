@@ -0,0 +1,104 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.exception.UpstreamBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamQuotaManagerTest {
+
+    private static final Duration SHORT_WAIT = Duration.ofMillis(20);
+
+    @Test
+    void spreadsCallsOverKeysAndRejectsWhenAllAreSpent() {
+        // 1 request per minute: nothing refills during the test
+        UpstreamQuotaManager quota = new UpstreamQuotaManager(List.of("a", "b"), 1, 2, 0,
+                SHORT_WAIT, SHORT_WAIT, 10);
+
+        List<String> keys = List.of(
+                acquire(quota, UpstreamPriority.INTERACTIVE),
+                acquire(quota, UpstreamPriority.INTERACTIVE),
+                acquire(quota, UpstreamPriority.INTERACTIVE),
+                acquire(quota, UpstreamPriority.INTERACTIVE));
+
+        assertEquals(2, keys.stream().filter("a"::equals).count());
+        assertEquals(2, keys.stream().filter("b"::equals).count());
+        assertThrows(UpstreamBusyException.class, () -> acquire(quota, UpstreamPriority.INTERACTIVE));
+        assertEquals(1, quota.getRejectedCount());
+        assertEquals(0, quota.getBudgets().get(0).remaining());
+    }
+
+    @Test
+    void backgroundCallsLeaveTheReserveToInteractiveOnes() {
+        UpstreamQuotaManager quota = new UpstreamQuotaManager(List.of("a"), 1, 10, 0.5,
+                SHORT_WAIT, SHORT_WAIT, 10);
+
+        for (int i = 0; i < 5; i++) {
+            acquire(quota, UpstreamPriority.BACKGROUND);
+        }
+        assertThrows(UpstreamBusyException.class, () -> acquire(quota, UpstreamPriority.BACKGROUND));
+
+        assertEquals("a", acquire(quota, UpstreamPriority.INTERACTIVE));
+        assertEquals(4, quota.getBudgets().get(0).remaining());
+    }
+
+    @Test
+    void interactiveWaiterIsServedBeforeEarlierBackgroundWaiter() throws InterruptedException {
+        // 600 per minute: one token every 100 ms
+        UpstreamQuotaManager quota = new UpstreamQuotaManager(List.of("a"), 600, 1, 0,
+                Duration.ofSeconds(5), Duration.ofSeconds(5), 10);
+        acquire(quota, UpstreamPriority.INTERACTIVE);
+
+        Queue<UpstreamPriority> order = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(2);
+        quota.acquire(UpstreamPriority.BACKGROUND)
+                .subscribe(key -> { order.add(UpstreamPriority.BACKGROUND); done.countDown(); });
+        quota.acquire(UpstreamPriority.INTERACTIVE)
+                .subscribe(key -> { order.add(UpstreamPriority.INTERACTIVE); done.countDown(); });
+        assertEquals(1, quota.getQueued(UpstreamPriority.BACKGROUND));
+        assertEquals(1, quota.getQueued(UpstreamPriority.INTERACTIVE));
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(UpstreamPriority.INTERACTIVE, UpstreamPriority.BACKGROUND), List.copyOf(order));
+    }
+
+    @Test
+    void rateLimitedKeyIsSkippedUntilItRefills() {
+        UpstreamQuotaManager quota = new UpstreamQuotaManager(List.of("a", "b"), 1, 5, 0,
+                SHORT_WAIT, SHORT_WAIT, 10);
+
+        quota.exhaust("a");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("b", acquire(quota, UpstreamPriority.INTERACTIVE));
+        }
+    }
+
+    @Test
+    void noQuotaTakesKeysInTurnWithoutWaiting() {
+        UpstreamQuotaManager quota = new UpstreamQuotaManager(List.of("a", "b"), 0, 0, 0.2,
+                SHORT_WAIT, SHORT_WAIT, 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("a", acquire(quota, UpstreamPriority.BACKGROUND));
+            quota.exhaust("a");
+            assertEquals("b", acquire(quota, UpstreamPriority.INTERACTIVE));
+        }
+
+        assertEquals(0, quota.getRejectedCount());
+        assertTrue(quota.getBudgets().isEmpty());
+    }
+
+    private static String acquire(UpstreamQuotaManager quota, UpstreamPriority priority) {
+        return quota.acquire(priority).block();
+    }
+}
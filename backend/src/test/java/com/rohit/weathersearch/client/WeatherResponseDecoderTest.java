@@ -0,0 +1,106 @@
+package com.rohit.weathersearch.client;
+
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WeatherResponseDecoderTest {
+
+    @Test
+    void decodesRecordedPayload() throws IOException {
+        WeatherResponse response;
+        try (InputStream in = getClass().getResourceAsStream("/stub/current-weather.json")) {
+            String payload = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("{{name}}", "London");
+            response = decode(payload);
+        }
+
+        assertEquals("London", response.getCityName());
+        assertEquals("GB", response.getCountry());
+        assertEquals(15.5, response.getTemperature());
+        assertEquals(14.2, response.getFeelsLike());
+        assertEquals(13.0, response.getTempMin());
+        assertEquals(17.0, response.getTempMax());
+        assertEquals(72, response.getHumidity());
+        assertEquals(1013, response.getPressure());
+        assertEquals("Clouds", response.getWeatherMain());
+        assertEquals("broken clouds", response.getWeatherDescription());
+        assertEquals("04d", response.getWeatherIcon());
+        assertEquals(3.5, response.getWindSpeed());
+        assertEquals(220, response.getWindDegree());
+        assertEquals(75, response.getCloudiness());
+        assertEquals(10000, response.getVisibility());
+        assertEquals(1703226789L, response.getSunrise());
+        assertEquals(1703256123L, response.getSunset());
+        assertEquals(1703326200L, response.getObservedAt());
+        assertEquals(2643743L, response.getCityId());
+        assertEquals(51.5085, response.getLatitude());
+        assertEquals(-0.1257, response.getLongitude());
+        assertNotNull(response.getTimestamp());
+        assertFalse(response.getFromCache());
+    }
+
+    @Test
+    void skipsUnknownFieldsAndExtraConditions() throws IOException {
+        WeatherResponse response = decode("""
+                {"alerts": [{"event": "wind", "tags": ["a", {"b": [1, 2]}]}],
+                 "weather": [{"main": "Rain", "extra": {"x": 1}}, {"main": "Mist"}],
+                 "main": {"temp": 3, "nested": {"temp": 99}},
+                 "name": "Bergen"}
+                """);
+
+        assertEquals("Bergen", response.getCityName());
+        assertEquals("Rain", response.getWeatherMain());
+        assertEquals(3.0, response.getTemperature());
+    }
+
+    @Test
+    void keepsMissingAndNullFieldsNull() throws IOException {
+        WeatherResponse response = decode("""
+                {"name": "Nowhere", "main": null, "wind": {"speed": null, "deg": 220.7}, "weather": []}
+                """);
+
+        assertNull(response.getTemperature());
+        assertNull(response.getWindSpeed());
+        assertEquals(220, response.getWindDegree());
+        assertNull(response.getWeatherMain());
+        assertNull(response.getCountry());
+        assertNull(response.getLatitude());
+    }
+
+    @Test
+    void decodesEachCityOfGroupPayload() throws IOException {
+        List<WeatherResponse> responses = WeatherResponseDecoder.decodeGroup(new ByteArrayInputStream("""
+                {"cnt": 2, "list": [
+                  {"id": 3143244, "name": "Oslo", "sys": {"id": 1, "country": "NO"}, "main": {"temp": -2}},
+                  {"id": 3161732, "name": "Bergen", "weather": [{"id": 500, "main": "Rain"}]}
+                ]}
+                """.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, responses.size());
+        assertEquals(3143244L, responses.get(0).getCityId());
+        assertEquals("NO", responses.get(0).getCountry());
+        assertEquals(-2.0, responses.get(0).getTemperature());
+        assertEquals(3161732L, responses.get(1).getCityId());
+        assertEquals("Rain", responses.get(1).getWeatherMain());
+    }
+
+    @Test
+    void rejectsNonObjectBody() {
+        assertThrows(IOException.class, () -> decode("[]"));
+    }
+
+    private static WeatherResponse decode(String json) throws IOException {
+        return WeatherResponseDecoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.rohit.weathersearch.cluster;
+
+import com.rohit.weathersearch.WeatherSearchApplication;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two replicas in peer mode on localhost, sharing one stub upstream.
+ */
+class ClusterPeerModeTest {
+
+    private static final String SHARED_SECRET = "replicas-only";
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    private static String urlA;
+    private static String urlB;
+    private static ConfigurableApplicationContext replicaA;
+    private static ConfigurableApplicationContext replicaB;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startReplicas() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        urlA = "http://localhost:" + portA;
+        urlB = "http://localhost:" + portB;
+        replicaA = startReplica(portA);
+        replicaB = startReplica(portB);
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        replicaA.close();
+        replicaB.close();
+        stub.close();
+    }
+
+    @Test
+    void missOnNonOwnerIsFetchedUpstreamOnceThroughTheOwner() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(urlA, urlB), 128);
+        String city = IntStream.range(0, 100).mapToObj(i -> "Town" + i)
+                .filter(name -> ring.ownerOf(name.toLowerCase()).equals(urlB))
+                .findFirst()
+                .orElseThrow();
+
+        HttpResponse<String> viaPeer = httpClient.send(weatherRequest(urlA, city), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> atOwner = httpClient.send(weatherRequest(urlB, city), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> again = httpClient.send(weatherRequest(urlA, city), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, viaPeer.statusCode());
+        assertEquals("MISS", viaPeer.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals("HIT", atOwner.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals("HIT", again.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals(1, stub.hitCount());
+    }
+
+    @Test
+    void ownerEndpointRefusesCallersWithoutTheSecret() throws Exception {
+        HttpRequest anonymous = HttpRequest.newBuilder(
+                URI.create(urlB + PeerCacheClient.PEER_PATH + "?city=Paris")).GET().build();
+        HttpRequest wrongSecret = HttpRequest.newBuilder(
+                URI.create(urlB + PeerCacheClient.PEER_PATH + "?city=Paris"))
+                .header(PeerCacheClient.SECRET_HEADER, "guess").GET().build();
+
+        assertEquals(403, httpClient.send(anonymous, HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(403, httpClient.send(wrongSecret, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    private static ConfigurableApplicationContext startReplica(int port) {
+        return new SpringApplicationBuilder(WeatherSearchApplication.class).run(
+                "--server.port=" + port,
+                "--openweather.api.url=" + stub.url(),
+                "--cluster.enabled=true",
+                "--cluster.self-url=http://localhost:" + port,
+                "--cluster.peers=" + urlA + "," + urlB,
+                "--cluster.shared-secret=" + SHARED_SECRET,
+                "--logging.level.com.rohit.weathersearch=WARN");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static HttpRequest weatherRequest(String baseUrl, String city) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/weather?city=" + city)).GET().build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.rohit.weathersearch.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> THREE = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    void spreadsKeysRoughlyEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE, 128);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            owned.merge(ring.ownerOf("city" + i), 1, Integer::sum);
+        }
+
+        for (String member : THREE) {
+            int share = owned.getOrDefault(member, 0);
+            assertTrue(share > 7_000 && share < 13_000, member + " owns " + share);
+        }
+    }
+
+    @Test
+    void addingAMemberOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE, 128);
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "city" + i;
+            if (!before.ownerOf(key).equals(after.ownerOf(key))) {
+                assertEquals("http://d:8080", after.ownerOf(key));
+                moved++;
+            }
+        }
+        assertTrue(moved > 1_500 && moved < 3_500, moved + " keys moved");
+    }
+
+    @Test
+    void ownerDoesNotDependOnMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE, 16);
+        ConsistentHashRing reversed = new ConsistentHashRing(
+                List.of("http://c:8080", "http://b:8080", "http://a:8080"), 16);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(ring.ownerOf("city" + i), reversed.ownerOf("city" + i));
+        }
+    }
+}
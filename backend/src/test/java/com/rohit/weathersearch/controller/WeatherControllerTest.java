@@ -0,0 +1,370 @@
+package com.rohit.weathersearch.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohit.weathersearch.cache.PopularCityTracker;
+import com.rohit.weathersearch.config.CacheConfig;
+import com.rohit.weathersearch.service.WeatherStreamHub;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@AutoConfigureObservability
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.tomcat.threads.max=" + WeatherControllerTest.SERVLET_THREADS,
+                "openweather.limiter.initial-limit=200",
+                "cache.serialized-json.enabled=true",
+                "cache.max-weight-mb=1",
+                "cache.variable-ttl.enabled=false",
+                "stream.poll-interval-seconds=1",
+                "stream.heartbeat-seconds=1"
+        })
+class WeatherControllerTest {
+
+    static final int SERVLET_THREADS = 10;
+
+    private static final int CONCURRENT_REQUESTS = 100;
+    private static final long UPSTREAM_LATENCY_MILLIS = 1000;
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private WeatherStreamHub weatherStreamHub;
+
+    @Autowired
+    private PopularCityTracker popularCityTracker;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+    }
+
+    /**
+     * With a blocking controller, 100 slow misses on 10 servlet threads need at least
+     * 10 upstream round trips back to back. Served asynchronously they all overlap.
+     */
+    @Test
+    void slowUpstreamDoesNotCapThroughputAtServletThreadCount() {
+        // Warm up the dispatcher and connection pools outside the measurement
+        httpClient.sendAsync(weatherRequest("WarmUp"), HttpResponse.BodyHandlers.discarding()).join();
+        stub.reset();
+        stub.setLatencyMillis(UPSTREAM_LATENCY_MILLIS);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(httpClient.sendAsync(weatherRequest("City" + i), HttpResponse.BodyHandlers.ofString()));
+        }
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        long blockingLowerBound = CONCURRENT_REQUESTS / SERVLET_THREADS * UPSTREAM_LATENCY_MILLIS;
+        assertTrue(elapsed.toMillis() < blockingLowerBound / 2,
+                "Expected well under " + blockingLowerBound + " ms, took " + elapsed.toMillis() + " ms");
+        assertEquals(CONCURRENT_REQUESTS, stub.hitCount());
+    }
+
+    @Test
+    void repeatedLookupIsServedFromCachedJsonWithCachingHeaders() throws Exception {
+        HttpResponse<String> miss = httpClient.send(weatherRequest("Lisbon"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> hit = httpClient.send(weatherRequest("lisbon"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> again = httpClient.send(weatherRequest("Lisbon"), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals("MISS", miss.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals("HIT", hit.headers().firstValue("X-Cache").orElseThrow());
+        assertFalse(objectMapper.readTree(miss.body()).get("fromCache").asBoolean());
+        assertTrue(objectMapper.readTree(hit.body()).get("fromCache").asBoolean());
+        assertNotEquals(miss.headers().firstValue("ETag"), hit.headers().firstValue("ETag"));
+        assertEquals(hit.headers().firstValue("ETag"), again.headers().firstValue("ETag"));
+        assertEquals(hit.body(), again.body());
+        assertTrue(hit.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertEquals("Lisbon", objectMapper.readTree(hit.body()).get("cityName").asText());
+        assertEquals("0", hit.headers().firstValue("Age").orElseThrow());
+        assertEquals("max-age=600, public", hit.headers().firstValue("Cache-Control").orElseThrow());
+        assertEquals(1, stub.hitCount());
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws Exception {
+        httpClient.send(weatherRequest("Porto"), HttpResponse.BodyHandlers.discarding());
+        String etag = httpClient.send(weatherRequest("Porto"), HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder(weatherRequest("Porto").uri())
+                .header("If-None-Match", "\"stale\", W/" + etag)
+                .build();
+        HttpResponse<String> response = httpClient.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(304, response.statusCode());
+        assertEquals("", response.body());
+        assertEquals(etag, response.headers().firstValue("ETag").orElseThrow());
+        assertTrue(response.headers().firstValue("Cache-Control").orElseThrow().startsWith("max-age="));
+        assertEquals(1, stub.hitCount());
+    }
+
+    @Test
+    void unknownCityReturnsNotFound() {
+        stub.addUnknownCity("Atlantis");
+
+        HttpResponse<String> response = httpClient.sendAsync(weatherRequest("Atlantis"),
+                HttpResponse.BodyHandlers.ofString()).join();
+
+        assertEquals(404, response.statusCode());
+        assertTrue(response.body().contains("City not found: Atlantis"));
+    }
+
+    @Test
+    void batchServesHitsFromCacheAndReportsPerCityErrors() throws Exception {
+        stub.addUnknownCity("Hyperborea");
+        httpClient.send(weatherRequest("Oslo"), HttpResponse.BodyHandlers.discarding());
+        stub.reset();
+        stub.addUnknownCity("Hyperborea");
+
+        HttpRequest batch = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/weather/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"cities\": [\"Rome\", \"Hyperborea\", \"rome \", \"Oslo\"]}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(batch, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals(1, body.get("cacheHits").asInt());
+        assertEquals(2, body.get("cacheMisses").asInt());
+
+        JsonNode results = body.get("results");
+        assertEquals(4, results.size());
+        assertEquals("Rome", results.get(0).get("weather").get("cityName").asText());
+        assertEquals(404, results.get(1).get("error").get("status").asInt());
+        assertEquals("rome ", results.get(2).get("city").asText());
+        assertEquals("Oslo", results.get(3).get("weather").get("cityName").asText());
+
+        // Rome and Hyperborea fetched once each, Oslo served from cache
+        assertEquals(2, stub.hitCount());
+    }
+
+    @Test
+    void nearbyCoordinatesShareOneCachedEntry() throws Exception {
+        HttpResponse<String> first = httpClient.send(coordinatesRequest(51.5085, -0.1257), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> second = httpClient.send(coordinatesRequest(51.5101, -0.1301), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        assertEquals(200, second.statusCode());
+        assertEquals(1, stub.hitCount());
+
+        HttpResponse<String> stats = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/weather/cache/stats?cache=geoWeatherCache")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(stats.body());
+        assertEquals(1, body.get("hitCount").asLong());
+        assertEquals(1, body.get("missCount").asLong());
+    }
+
+    @Test
+    void hotCitiesReportRequestCountsAndCachedWeight() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            httpClient.send(weatherRequest("Tromso"), HttpResponse.BodyHandlers.discarding());
+        }
+
+        HttpResponse<String> hot = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/weather/cache/hot?limit=200")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> stats = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/weather/cache/stats")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, hot.statusCode());
+        JsonNode body = objectMapper.readTree(hot.body());
+        JsonNode tromso = null;
+        for (JsonNode city : body.get("cities")) {
+            if (city.get("city").asText().equals("tromso")) {
+                tromso = city;
+            }
+        }
+        assertNotNull(tromso, hot.body());
+        assertTrue(tromso.get("estimatedRequests").asLong() >= 3);
+        assertTrue(tromso.get("cached").asBoolean());
+        assertTrue(tromso.get("estimatedBytes").asInt() > 0);
+        assertTrue(body.get("totalRequests").asLong() >= 3);
+
+        JsonNode cacheStats = objectMapper.readTree(stats.body());
+        assertTrue(cacheStats.get("weightedSizeBytes").asLong() >= tromso.get("estimatedBytes").asLong());
+        assertEquals(1024 * 1024, cacheStats.get("maximumWeightBytes").asLong());
+    }
+
+    @Test
+    void outOfRangeLatitudeIsBadRequest() throws Exception {
+        HttpResponse<String> response = httpClient.send(coordinatesRequest(91, 0), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertEquals(0, stub.hitCount());
+    }
+
+    @Test
+    void failingUpstreamServesLastKnownValueMarkedStale() throws Exception {
+        httpClient.send(weatherRequest("Dublin"), HttpResponse.BodyHandlers.discarding());
+        cacheManager.getCache(CacheConfig.WEATHER_CACHE).evict("dublin");
+        stub.setErrorRate(1.0);
+
+        HttpResponse<String> stale = httpClient.send(weatherRequest("Dublin"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> unknown = httpClient.send(weatherRequest("Vienna"), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, stale.statusCode());
+        assertEquals("STALE", stale.headers().firstValue("X-Cache").orElseThrow());
+        assertTrue(stale.headers().firstValue("Warning").orElseThrow().startsWith("110"));
+        assertEquals("max-age=0, public", stale.headers().firstValue("Cache-Control").orElseThrow());
+        JsonNode body = objectMapper.readTree(stale.body());
+        assertEquals("Dublin", body.get("cityName").asText());
+        assertTrue(body.get("stale").asBoolean());
+        assertTrue(body.get("fromCache").asBoolean());
+
+        assertEquals(502, unknown.statusCode());
+    }
+
+    @Test
+    void streamsShareOnePollerAndPushOnlyChangedReadings() throws Exception {
+        LineCollector first = openStream("Bergen");
+        LineCollector second = openStream("bergen");
+
+        // Three polls of an unchanged reading
+        Thread.sleep(2500);
+
+        assertEquals(1, first.count("event:weather"));
+        assertEquals(1, second.count("event:weather"));
+        assertTrue(first.lines.stream().anyMatch(line -> line.startsWith("data:") && line.toLowerCase().contains("\"bergen\"")));
+        assertEquals(1, weatherStreamHub.getPollerCount());
+        assertEquals(1, stub.hitCount());
+        // Two subscriptions; the polls behind them are not requests
+        assertEquals(2, popularCityTracker.estimate("bergen"));
+
+        first.cancel();
+        second.cancel();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (weatherStreamHub.getPollerCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, weatherStreamHub.getPollerCount());
+        assertEquals(0, weatherStreamHub.getSubscriberCount());
+    }
+
+    @Test
+    void prometheusEndpointExposesHotPathMetrics() throws Exception {
+        httpClient.send(weatherRequest("Madrid"), HttpResponse.BodyHandlers.discarding());
+        httpClient.send(weatherRequest("Madrid"), HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<String> scrape = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, scrape.statusCode());
+        String metrics = scrape.body();
+        assertTrue(metrics.contains("weather_cache_lookup_seconds_bucket{cache=\"weatherCache\",result=\"hit\""));
+        assertTrue(metrics.contains("weather_cache_lookup_seconds_count{cache=\"weatherCache\",result=\"miss\"}"));
+        assertTrue(metrics.contains("weather_conversion_seconds_count"));
+        assertTrue(metrics.contains("http_client_requests_seconds_count{"));
+        assertTrue(metrics.contains("status=\"200\",uri=\"none\""), "upstream calls tagged by status");
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.contains("cache_gets_total{cache=\"weatherCache\""));
+        assertTrue(metrics.contains("cache_gets_total{cache=\"negativeCityCache\""));
+        assertTrue(metrics.contains("reactor_netty_connection_provider_active_connections{"));
+        assertTrue(metrics.contains("reactor_netty_connection_provider_pending_connections_time_seconds_count{"));
+    }
+
+    private LineCollector openStream(String city) {
+        LineCollector collector = new LineCollector();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/weather/stream?city=" + city)).GET().build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(collector));
+        return collector;
+    }
+
+    private HttpRequest coordinatesRequest(double lat, double lon) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/weather?lat=" + lat + "&lon=" + lon))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest weatherRequest(String city) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/weather?city=" + city))
+                .GET()
+                .build();
+    }
+
+    private static final class LineCollector implements Flow.Subscriber<String> {
+        private final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        long count(String line) {
+            return lines.stream().filter(line::equals).count();
+        }
+
+        void cancel() {
+            subscription.cancel();
+        }
+    }
+}
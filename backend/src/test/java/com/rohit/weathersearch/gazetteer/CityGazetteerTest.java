@@ -0,0 +1,56 @@
+package com.rohit.weathersearch.gazetteer;
+
+import com.rohit.weathersearch.model.dto.CitySuggestion;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityGazetteerTest {
+
+    private static CityGazetteer gazetteer;
+
+    @BeforeAll
+    static void load() {
+        gazetteer = new CityGazetteer(new ClassPathResource("gazetteer/cities.tsv"));
+    }
+
+    @Test
+    void prefixMatchesAreRankedByPopulation() {
+        List<String> names = names(gazetteer.suggest("Man", 3));
+
+        assertEquals(List.of("Manila", "Manchester", "Manaus"), names);
+        assertEquals("London", gazetteer.suggest("lon", 10).get(0).getName());
+    }
+
+    @Test
+    void toleratesOneTypo() {
+        assertTrue(names(gazetteer.suggest("londn", 10)).contains("London"));
+        assertTrue(names(gazetteer.suggest("lodnon", 10)).isEmpty());
+        // Too short for fuzzy matching
+        assertTrue(names(gazetteer.suggest("lx", 10)).isEmpty());
+    }
+
+    @Test
+    void ignoresCaseAccentsAndExtraWhitespace() {
+        assertEquals("Sao Paulo", gazetteer.suggest("SÃO  pau", 1).get(0).getName());
+        assertEquals("Zurich", gazetteer.suggest("zürich", 1).get(0).getName());
+    }
+
+    @Test
+    void knowsCitiesWithOptionalCountryCode() {
+        assertTrue(gazetteer.isKnownCity("London"));
+        assertTrue(gazetteer.isKnownCity("london,GB"));
+        assertFalse(gazetteer.isKnownCity("Lond"));
+        assertFalse(gazetteer.isKnownCity("Atlantis"));
+    }
+
+    private static List<String> names(List<CitySuggestion> suggestions) {
+        return suggestions.stream().map(CitySuggestion::getName).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.rohit.weathersearch.load;
+
+import com.rohit.weathersearch.support.StubWeatherServer;
+import com.rohit.weathersearch.support.load.LoadDriver;
+import com.rohit.weathersearch.support.load.LoadReport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of GET /api/weather against the embedded stub upstream.
+ * Excluded from the normal build; run offline with:
+ *
+ *   mvn -Pload-test test
+ *
+ * Tunable with system properties, e.g. -Dload.rate=2000 -Dstub.latency-ms=200:
+ * load.duration-seconds, load.warmup-seconds, load.clients (closed loop),
+ * load.rate (open loop, requests per second), load.cities, load.zipf-exponent,
+ * load.seed, stub.latency-ms, stub.error-rate and stub.not-found-rate.
+ */
+@Tag("load")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "openweather.limiter.initial-limit=200",
+                "logging.level.com.rohit.weathersearch=WARN"
+        })
+class WeatherLoadTest {
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void weatherEndpointUnderLoad() throws InterruptedException {
+        stub.setLatencyMillis(Long.getLong("stub.latency-ms", 50));
+        stub.setErrorRate(doubleProperty("stub.error-rate", 0.01));
+        stub.setNotFoundRate(doubleProperty("stub.not-found-rate", 0.02));
+
+        List<String> cities = IntStream.range(0, Integer.getInteger("load.cities", 1000))
+                .mapToObj(i -> String.format("City%04d", i))
+                .toList();
+        LoadDriver driver = new LoadDriver("http://localhost:" + port + "/api/weather", cities,
+                doubleProperty("load.zipf-exponent", 0.99), Long.getLong("load.seed", 42));
+
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+        Duration warmUp = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+        int clients = Integer.getInteger("load.clients", 32);
+        double rate = doubleProperty("load.rate", 500);
+
+        driver.runClosedLoop("warm-up", clients, warmUp);
+        LoadReport closed = driver.runClosedLoop("closed loop, " + clients + " clients", clients, duration);
+        System.out.println(closed.format());
+        LoadReport open = driver.runOpenLoop("open loop, " + (int) rate + " req/s", rate, duration);
+        System.out.println(open.format());
+
+        assertTrue(closed.requests() > 0 && open.requests() > 0);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
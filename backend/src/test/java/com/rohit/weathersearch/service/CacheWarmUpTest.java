@@ -0,0 +1,75 @@
+package com.rohit.weathersearch.service;
+
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "cache.warmup.enabled=true",
+        "cache.warmup.rate-per-second=50",
+        "cache.warmup.snapshot-interval-seconds=3600"
+})
+class CacheWarmUpTest {
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+    private static final Path snapshot = createSnapshot("Paris", "London", "Oslo");
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+        registry.add("cache.warmup.snapshot-path", snapshot::toString);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void snapshotCitiesAreCachedBeforeStartupCompletes() {
+        assertEquals(3, stub.hitCount());
+        assertEquals(3, weatherService.getCacheStatistics().getEstimatedSize());
+
+        weatherService.getCurrentWeather("paris");
+        assertEquals(3, stub.hitCount());
+    }
+
+    @Test
+    void snapshotListsMostRequestedCitiesFirst() throws IOException {
+        for (String city : List.of("Rome", "Lima", "rome ", "ROME", "Lima", "Quito")) {
+            weatherService.getCurrentWeather(city);
+        }
+
+        cacheWarmUp.writeSnapshot();
+
+        List<String> cities = Files.readAllLines(snapshot);
+        assertEquals(List.of("rome", "lima"), cities.subList(0, 2));
+    }
+
+    private static Path createSnapshot(String... cities) {
+        try {
+            Path file = Files.createTempDirectory("warmup").resolve("popular-cities.txt");
+            return Files.write(file, List.of(cities));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.rohit.weathersearch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rohit.weathersearch.exception.CityNotFoundException;
+import com.rohit.weathersearch.exception.ExternalApiException;
+import com.rohit.weathersearch.model.dto.CacheStatsResponse;
+import com.rohit.weathersearch.model.dto.WeatherResponse;
+import com.rohit.weathersearch.support.StubWeatherServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(properties = {
+        // Refresh-ahead with a variable TTL on a short cycle: an entry expires a
+        // minute after its observation and is due for a reload 2 s before that
+        "cache.refresh-ahead.enabled=true",
+        "cache.variable-ttl.enabled=true",
+        "cache.variable-ttl.observation-interval-minutes=1",
+        "cache.variable-ttl.publish-delay-seconds=0",
+        "cache.variable-ttl.min-seconds=2",
+        "cache.variable-ttl.stable-multiplier=1",
+        "cache.variable-ttl.volatile-multiplier=1"
+})
+class WeatherServiceImplTest {
+
+    private static final int CONCURRENT_CALLERS = 500;
+    private static final long OBSERVED_SECONDS_AGO = 54;
+
+    private static final StubWeatherServer stub = new StubWeatherServer();
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private Cache<String, Boolean> negativeCityCache;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+        stub.setLatencyMillis(300);
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() throws Exception {
+        List<Future<WeatherResponse>> results = runConcurrently(() -> weatherService.getCurrentWeather("Paris"));
+
+        for (Future<WeatherResponse> result : results) {
+            assertEquals("Paris", result.get().getCityName());
+        }
+        assertEquals(1, stub.hitCount());
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamError() throws Exception {
+        stub.addUnknownCity("Atlantis");
+
+        List<Future<WeatherResponse>> results = runConcurrently(() -> weatherService.getCurrentWeather("Atlantis"));
+
+        for (Future<WeatherResponse> result : results) {
+            try {
+                result.get();
+                fail("Expected CityNotFoundException");
+            } catch (ExecutionException e) {
+                assertInstanceOf(CityNotFoundException.class, e.getCause());
+            }
+        }
+        assertEquals(1, stub.hitCount());
+    }
+
+    @Test
+    void unknownCityIsServedFromNegativeCache() {
+        stub.addUnknownCity("Lemuria");
+        CacheStatsResponse before = weatherService.getCacheStatistics();
+
+        for (String spelling : List.of("Lemuria", "lemuria", " LEMURIA ")) {
+            assertThrows(CityNotFoundException.class, () -> weatherService.getCurrentWeather(spelling));
+        }
+
+        CacheStatsResponse after = weatherService.getCacheStatistics();
+        assertEquals(1, stub.hitCount());
+        assertEquals(2, after.getNegativeHitCount() - before.getNegativeHitCount());
+        assertEquals(1, after.getNegativeMissCount() - before.getNegativeMissCount());
+    }
+
+    @Test
+    void rejectedRequestIsNotNegativeCached() {
+        stub.setLatencyMillis(0);
+        stub.setRejectStatus(401);
+
+        assertThrows(ExternalApiException.class, () -> weatherService.getCurrentWeather("Gotham"));
+
+        assertNull(negativeCityCache.getIfPresent("gotham"));
+    }
+
+    @Test
+    void dueEntryIsServedFromCacheWhileReloadingInTheBackground() throws Exception {
+        stub.setLatencyMillis(0);
+        long observedAt = Instant.now().getEpochSecond() - OBSERVED_SECONDS_AGO;
+        stub.setObservedAt(observedAt);
+        weatherService.getCurrentWeather("Reykjavik");
+        assertTrue(weatherService.getCurrentWeather("Reykjavik").getFromCache());
+        assertEquals(1, stub.hitCount()); // not due yet
+
+        sleepUntil(expiresAtMillis(observedAt) - 1500);
+        stub.setLatencyMillis(1000);
+        stub.setObservedAt(observedAt + 60);
+        long start = System.nanoTime();
+        WeatherResponse due = weatherService.getCurrentWeather("Reykjavik");
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "answered without waiting");
+        assertTrue(due.getFromCache());
+        assertEquals(observedAt, due.getObservedAt());
+        awaitHitCount(2);
+        awaitObservedAt("Reykjavik", observedAt + 60);
+    }
+
+    @Test
+    void failedReloadKeepsTheOldValueUntilItExpires() throws Exception {
+        stub.setLatencyMillis(0);
+        long observedAt = Instant.now().getEpochSecond() - OBSERVED_SECONDS_AGO;
+        stub.setObservedAt(observedAt);
+        weatherService.getCurrentWeather("Nuuk");
+
+        sleepUntil(expiresAtMillis(observedAt) - 1500);
+        stub.setErrorRate(1);
+        weatherService.getCurrentWeather("Nuuk"); // starts the reload, which fails
+        awaitHitCount(2);
+        WeatherResponse afterFailure = weatherService.getCurrentWeather("Nuuk");
+
+        assertTrue(afterFailure.getFromCache());
+        assertFalse(afterFailure.getStale());
+        assertEquals(observedAt, afterFailure.getObservedAt());
+
+        // Past the hard expiry the entry is gone; the failing API leaves only the stale copy
+        sleepUntil(expiresAtMillis(observedAt) + 500);
+        WeatherResponse expired = weatherService.getCurrentWeather("Nuuk");
+
+        assertTrue(expired.getStale());
+        assertEquals(observedAt, expired.getObservedAt());
+    }
+
+    private static long expiresAtMillis(long observedAtSeconds) {
+        return (observedAtSeconds + 60) * 1000;
+    }
+
+    private static void sleepUntil(long epochMillis) throws InterruptedException {
+        Thread.sleep(Math.max(0, epochMillis - System.currentTimeMillis()));
+    }
+
+    private static void awaitHitCount(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stub.hitCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, stub.hitCount());
+    }
+
+    private void awaitObservedAt(String city, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Long.valueOf(expected).equals(weatherService.getCurrentWeather(city).getObservedAt())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, weatherService.getCurrentWeather(city).getObservedAt());
+    }
+
+    /**
+     * Releases all callers at once so their cache misses overlap.
+     */
+    private static <T> List<Future<T>> runConcurrently(Callable<T> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        return futures;
+    }
+}
@@ -0,0 +1,243 @@
+package com.rohit.weathersearch.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process stand-in for the OpenWeatherMap current weather endpoint.
+ * Serves a recorded payload for any city, counts upstream hits and can
+ * simulate slow responses, unknown cities, rejected requests and server errors.
+ *
+ * Each city name gets its own city id on first lookup, which the group
+ * endpoint then answers for; ids it never handed out are left out there.
+ * The observation time (dt) is the recorded one unless set.
+ *
+ * For load tests, a share of city names can be made unknown (the same names
+ * every run, chosen by hash) and a share of requests can fail with 503.
+ */
+public class StubWeatherServer implements AutoCloseable {
+
+    public static final String PATH = "/data/2.5/weather";
+    public static final String GROUP_PATH = "/data/2.5/group";
+
+    private static final String RECORDED_CITY_ID = "\"id\": 2643743";
+    private static final String RECORDED_OBSERVED_AT = "\"dt\": 1703326200";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final String payloadTemplate;
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger groupHitCount = new AtomicInteger();
+    private final Map<String, Long> cityIds = new ConcurrentHashMap<>();
+    private final Map<Long, String> cityNames = new ConcurrentHashMap<>();
+    private final AtomicLong nextCityId = new AtomicLong(1_000_000);
+    private final Set<String> unknownCities = ConcurrentHashMap.newKeySet();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile double notFoundRate;
+    private volatile int rejectStatus; // 0 to answer normally
+    private volatile long observedAt; // epoch seconds, 0 for the recorded dt
+
+    public StubWeatherServer() {
+        try {
+            this.payloadTemplate = readResource("/stub/current-weather.json");
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext(PATH, this::handle);
+        server.createContext(GROUP_PATH, this::handleGroup);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * All upstream calls, group calls included.
+     */
+    public int hitCount() {
+        return hitCount.get();
+    }
+
+    public int groupHitCount() {
+        return groupHitCount.get();
+    }
+
+    public void reset() {
+        hitCount.set(0);
+        groupHitCount.set(0);
+        unknownCities.clear();
+        latencyMillis = 0;
+        errorRate = 0;
+        notFoundRate = 0;
+        rejectStatus = 0;
+        observedAt = 0;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Share of requests, between 0 and 1, answered with 503.
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Share of city names, between 0 and 1, answered with 404.
+     */
+    public void setNotFoundRate(double notFoundRate) {
+        this.notFoundRate = notFoundRate;
+    }
+
+    /**
+     * Client error, such as 401 for a bad API key, to answer every city request with.
+     */
+    public void setRejectStatus(int status) {
+        this.rejectStatus = status;
+    }
+
+    /**
+     * Observation time (dt) to report, in epoch seconds.
+     */
+    public void setObservedAt(long epochSeconds) {
+        this.observedAt = epochSeconds;
+    }
+
+    public void addUnknownCity(String city) {
+        unknownCities.add(city.toLowerCase());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hitCount.incrementAndGet();
+        String city = queryParams(exchange).getOrDefault("q", "");
+
+        simulateLatency();
+
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            respond(exchange, 503, "{\"cod\":\"503\",\"message\":\"service unavailable\"}");
+        } else if (rejectStatus > 0) {
+            respond(exchange, rejectStatus, "{\"cod\":" + rejectStatus + ",\"message\":\"request rejected\"}");
+        } else if (isUnknown(city)) {
+            respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}");
+        } else {
+            respond(exchange, 200, payload(city));
+        }
+    }
+
+    private void handleGroup(HttpExchange exchange) throws IOException {
+        hitCount.incrementAndGet();
+        groupHitCount.incrementAndGet();
+        String ids = queryParams(exchange).getOrDefault("id", "");
+
+        simulateLatency();
+
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            respond(exchange, 503, "{\"cod\":\"503\",\"message\":\"service unavailable\"}");
+            return;
+        }
+        List<String> list = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            String city = id.isBlank() ? null : cityNames.get(Long.parseLong(id.trim()));
+            if (city != null && !isUnknown(city)) {
+                list.add(payload(city));
+            }
+        }
+        respond(exchange, 200, "{\"cnt\":" + list.size() + ",\"list\":[" + String.join(",", list) + "]}");
+    }
+
+    private String payload(String city) {
+        long cityId = cityIds.computeIfAbsent(city.toLowerCase(), name -> {
+            long id = nextCityId.getAndIncrement();
+            cityNames.put(id, city);
+            return id;
+        });
+        String payload = payloadTemplate.replace("{{name}}", city).replace(RECORDED_CITY_ID, "\"id\": " + cityId);
+        long dt = observedAt;
+        return dt > 0 ? payload.replace(RECORDED_OBSERVED_AT, "\"dt\": " + dt) : payload;
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isUnknown(String city) {
+        return unknownCities.contains(city.toLowerCase()) || isUnknownByHash(city);
+    }
+
+    private boolean isUnknownByHash(String city) {
+        int bucket = Math.floorMod(city.toLowerCase().hashCode(), 10_000);
+        return bucket < notFoundRate * 10_000;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int idx = pair.indexOf('=');
+            if (idx > 0) {
+                params.put(pair.substring(0, idx),
+                        URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String readResource(String path) throws IOException {
+        try (InputStream in = StubWeatherServer.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IOException("Missing test resource: " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rohit.weathersearch.support.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives GET /api/weather?city=... with cities drawn from a Zipfian
+ * popularity distribution.
+ *
+ * Closed loop: a fixed number of clients each send their next request as
+ * soon as the previous one returns, so throughput adapts to the server.
+ * Open loop: requests are started on a fixed schedule whatever the server
+ * does, and latency is measured from the scheduled start. A stalled server
+ * therefore shows up in the percentiles instead of silently lowering the
+ * request rate (coordinated omission).
+ *
+ * Every run with the same seed asks for the same cities in the same order.
+ */
+public class LoadDriver {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final String weatherUrl;
+    private final List<String> cities;
+    private final ZipfianGenerator popularity;
+    private final long seed;
+
+    /**
+     * @param weatherUrl the /api/weather URL of the server under test
+     * @param cities city names, most popular first
+     */
+    public LoadDriver(String weatherUrl, List<String> cities, double zipfExponent, long seed) {
+        this.weatherUrl = weatherUrl;
+        this.cities = List.copyOf(cities);
+        this.popularity = new ZipfianGenerator(cities.size(), zipfExponent);
+        this.seed = seed;
+    }
+
+    public LoadReport runClosedLoop(String name, int clients, Duration duration) throws InterruptedException {
+        LoadReport report = new LoadReport(name);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int client = 0; client < clients; client++) {
+            SplittableRandom random = new SplittableRandom(seed + client);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(
+                                    request(random), HttpResponse.BodyHandlers.discarding());
+                            report.record(response.statusCode(), System.nanoTime() - sent);
+                        } catch (IOException e) {
+                            report.recordFailure(System.nanoTime() - sent);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + client);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        done.await();
+        report.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        return report;
+    }
+
+    public LoadReport runOpenLoop(String name, double requestsPerSecond, Duration duration) {
+        LoadReport report = new LoadReport(name);
+        SplittableRandom random = new SplittableRandom(seed);
+        long interval = (long) (1_000_000_000L / requestsPerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intendedStart = scheduled;
+            inFlight.add(httpClient.sendAsync(request(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intendedStart;
+                        if (error != null) {
+                            report.recordFailure(latency);
+                        } else {
+                            report.record(response.statusCode(), latency);
+                        }
+                    }));
+        }
+
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .orTimeout(1, TimeUnit.MINUTES)
+                .join();
+        report.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        return report;
+    }
+
+    private HttpRequest request(SplittableRandom random) {
+        String city = cities.get(popularity.next(random));
+        return HttpRequest.newBuilder(URI.create(weatherUrl + "?city=" + URLEncoder.encode(city, StandardCharsets.UTF_8)))
+                .GET()
+                .build();
+    }
+}
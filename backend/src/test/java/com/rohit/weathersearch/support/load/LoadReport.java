@@ -0,0 +1,82 @@
+package com.rohit.weathersearch.support.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one load run. Latencies are recorded in
+ * microseconds with three significant digits; recording is thread-safe.
+ */
+public class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder otherStatus = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    public LoadReport(String name) {
+        this.name = name;
+    }
+
+    void record(int status, long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (status == 200) {
+            ok.increment();
+        } else if (status == 404) {
+            notFound.increment();
+        } else {
+            otherStatus.increment();
+        }
+    }
+
+    /**
+     * A request that got no response at all, e.g. a refused connection.
+     */
+    void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        failed.increment();
+    }
+
+    void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public long requests() {
+        return latencies.getTotalCount();
+    }
+
+    public long failures() {
+        return failed.sum();
+    }
+
+    public double throughputPerSecond() {
+        return elapsed.isZero() ? 0 : requests() * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    /**
+     * Latency at the given percentile (0-100), in milliseconds.
+     */
+    public double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT,
+                "%s: %d requests in %.1f s, %.0f req/s | 200: %d, 404: %d, other: %d, failed: %d | "
+                        + "latency ms p50 %.2f, p99 %.2f, p999 %.2f, max %.2f",
+                name, requests(), elapsed.toMillis() / 1000.0, throughputPerSecond(),
+                ok.sum(), notFound.sum(), otherStatus.sum(), failed.sum(),
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                latencies.getMaxValue() / 1000.0);
+    }
+}
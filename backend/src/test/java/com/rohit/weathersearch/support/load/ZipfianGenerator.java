@@ -0,0 +1,38 @@
+package com.rohit.weathersearch.support.load;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws item ranks 0..n-1 with Zipfian probability: rank k is chosen in
+ * proportion to 1 / (k + 1)^exponent, so a few popular cities get most of
+ * the traffic and a long tail is rarely asked for.
+ *
+ * The cumulative distribution is precomputed; each draw is a binary search.
+ * Immutable and thread-safe; callers bring their own random generator.
+ */
+public class ZipfianGenerator {
+
+    private final double[] cumulative;
+
+    public ZipfianGenerator(int items, double exponent) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("items must be positive");
+        }
+        cumulative = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < items; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public int next(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}